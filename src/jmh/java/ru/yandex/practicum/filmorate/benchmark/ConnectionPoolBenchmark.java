@@ -0,0 +1,167 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.film.JdbcFilmRepository;
+import ru.yandex.practicum.filmorate.repository.genre.CachedGenreRepository;
+import ru.yandex.practicum.filmorate.repository.genre.JdbcGenreRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.CachedMpaRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.JdbcMpaRepository;
+import ru.yandex.practicum.filmorate.repository.user.JdbcUserRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the JDBC repositories behind a Hikari pool of {@code poolSize} connections, with more client threads
+ * than connections, using the same pool and statement settings as {@code application-prod.properties}:
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="ConnectionPoolBenchmark -p poolSize=4,16"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class ConnectionPoolBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class PoolState {
+        @Param({"1", "2", "4", "8", "16", "32"})
+        public int poolSize;
+
+        @Param({"1000"})
+        public int films;
+
+        @Param({"1000"})
+        public int users;
+
+        @Param({"64"})
+        public int statementCacheSize;
+
+        @Param({"500"})
+        public int fetchSize;
+
+        JdbcFilmRepository filmRepository;
+        JdbcUserRepository userRepository;
+
+        private HikariDataSource dataSource;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl("jdbc:h2:mem:pool-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE="
+                    + statementCacheSize);
+            config.setUsername("sa");
+            config.setMaximumPoolSize(poolSize);
+            config.setMinimumIdle(poolSize);
+            config.setConnectionTimeout(30_000);
+            dataSource = new HikariDataSource(config);
+            new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"))
+                    .execute(dataSource);
+
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.setFetchSize(fetchSize);
+            NamedParameterJdbcTemplate jdbc = new NamedParameterJdbcTemplate(jdbcTemplate);
+            CachedMpaRepository mpaRepository = new CachedMpaRepository(new JdbcMpaRepository(jdbc));
+            CachedGenreRepository genreRepository = new CachedGenreRepository(new JdbcGenreRepository(jdbc));
+            mpaRepository.refresh();
+            genreRepository.refresh();
+            filmRepository = new JdbcFilmRepository(jdbc, mpaRepository, genreRepository);
+            userRepository = new JdbcUserRepository(jdbc);
+            seed();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            dataSource.close();
+        }
+
+        long randomFilmId() {
+            return ThreadLocalRandom.current().nextLong(films) + 1;
+        }
+
+        long randomUserId() {
+            return ThreadLocalRandom.current().nextLong(users) + 1;
+        }
+
+        private void seed() {
+            List<User> newUsers = new ArrayList<>();
+            for (int i = 1; i <= users; i++) {
+                User user = new User();
+                user.setEmail("user" + i + "@example.com");
+                user.setLogin("user" + i);
+                user.setName("User " + i);
+                user.setBirthday(LocalDate.of(1970 + i % 40, 1 + i % 12, 1 + i % 28));
+                newUsers.add(user);
+            }
+            userRepository.addUsers(newUsers);
+
+            List<Film> newFilms = new ArrayList<>();
+            for (int i = 1; i <= films; i++) {
+                Film film = new Film();
+                film.setName("Film " + i);
+                film.setDescription("Description for film " + i);
+                film.setReleaseDate(LocalDate.of(1990 + i % 30, 1 + i % 12, 1 + i % 28));
+                film.setDuration(60 + i % 120);
+                film.setMpa(new Mpa(1 + i % 5, null));
+                film.setGenres(new LinkedHashSet<>(List.of(new Genre(1 + i % 6, null))));
+                newFilms.add(film);
+            }
+            filmRepository.addFilms(newFilms);
+
+            List<Like> likes = new ArrayList<>();
+            for (long filmId = 1; filmId <= films; filmId++) {
+                for (int j = 0; j < 20; j++) {
+                    likes.add(new Like(filmId, (filmId * 31 + j) % users + 1));
+                }
+            }
+            filmRepository.addLikes(likes);
+        }
+    }
+
+    @Benchmark
+    public Film getFilmById(PoolState state) {
+        return state.filmRepository.getFilmById(state.randomFilmId());
+    }
+
+    @Benchmark
+    public Collection<Film> getPopularMovies(PoolState state) {
+        return state.filmRepository.getPopularMovies(10L);
+    }
+
+    @Benchmark
+    public Set<User> getAllFriends(PoolState state) {
+        return state.userRepository.getAllFriends(state.randomUserId());
+    }
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.repository.film.InMemoryFilmRepository;
+import ru.yandex.practicum.filmorate.service.film.FilmRecommendationIndex;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recommendation latency on a synthetic likes matrix with skewed film popularity. The defaults build 10M likes
+ * and need a few gigabytes of heap; the probe user has {@code probeLikes} likes.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FilmRecommendationBenchmark {
+    @Param({"100000"})
+    public int users;
+
+    @Param({"50000"})
+    public int films;
+
+    @Param({"100"})
+    public int likesPerUser;
+
+    @Param({"1000"})
+    public int probeLikes;
+
+    private FilmRecommendationIndex recommendationIndex;
+    private long probeUserId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        recommendationIndex = new FilmRecommendationIndex(new InMemoryFilmRepository());
+        SplittableRandom random = new SplittableRandom(42);
+        for (long userId = 1; userId <= users; userId++) {
+            for (int i = 0; i < likesPerUser; i++) {
+                recommendationIndex.addLike(randomFilm(random), userId);
+            }
+        }
+
+        probeUserId = users + 1L;
+        for (int i = 0; i < probeLikes; i++) {
+            recommendationIndex.addLike(randomFilm(random), probeUserId);
+        }
+    }
+
+    private long randomFilm(SplittableRandom random) {
+        double skewed = Math.pow(random.nextDouble(), 3);
+        return (long) (skewed * films) + 1;
+    }
+
+    @Benchmark
+    public List<Long> recommendFilms() {
+        return recommendationIndex.recommendFilms(probeUserId, 10);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.film.FilmPopularityIndex;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmRepositoryBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class IndexState {
+        FilmPopularityIndex popularityIndex;
+
+        @Setup(Level.Trial)
+        public void setUp(StorageState state) {
+            popularityIndex = new FilmPopularityIndex(state.filmRepository);
+            popularityIndex.rebuild();
+        }
+    }
+
+    @Benchmark
+    public Film getFilmById(StorageState state) {
+        return state.filmRepository.getFilmById(state.randomFilmId());
+    }
+
+    @Benchmark
+    public boolean existsById(StorageState state) {
+        return state.filmRepository.existsById(state.randomFilmId());
+    }
+
+    @Benchmark
+    public Collection<Film> getAllFilms(StorageState state) {
+        return state.filmRepository.getAllFilms();
+    }
+
+    @Benchmark
+    public Collection<Film> getFilmsPage(StorageState state) {
+        return state.filmRepository.getFilmsPage(state.randomFilmId(), 50);
+    }
+
+    @Benchmark
+    public Collection<Film> getPopularMovies(StorageState state) {
+        return state.filmRepository.getPopularMovies(10L);
+    }
+
+    @Benchmark
+    public List<Long> getPopularFilmIdsFromIndex(IndexState index) {
+        return index.popularityIndex.getPopularFilmIds(10);
+    }
+
+    @Benchmark
+    public Map<Long, Integer> getLikeCounts(StorageState state) {
+        return state.filmRepository.getLikeCounts();
+    }
+
+    @Benchmark
+    public boolean addAndRemoveLike(StorageState state) {
+        long filmId = state.randomFilmId();
+        state.filmRepository.addLike(filmId, state.probeUserId);
+        return state.filmRepository.removeLike(filmId, state.probeUserId);
+    }
+}
@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.repository.LongHashSet;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the likes of {@code films} films with {@code likesPerFilm} likes each as boxed {@code Set<Long>}s and as
+ * {@link LongHashSet}s. The time and, with {@code -prof gc}, the allocation are measured by JMH; the heap retained
+ * per like is printed after each iteration, measured around a full GC.
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="LikeSetMemoryBenchmark"}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class LikeSetMemoryBenchmark {
+    @Param({"boxed", "compact"})
+    public String sets;
+
+    @Param({"1000"})
+    public int films;
+
+    @Param({"1000"})
+    public int likesPerFilm;
+
+    private Map<Long, ?> likes;
+
+    @Benchmark
+    public Map<Long, ?> buildLikes() {
+        likes = "boxed".equals(sets) ? buildBoxed() : buildCompact();
+        return likes;
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportRetainedHeap() {
+        long withLikes = usedHeap();
+        likes = null;
+        long withoutLikes = usedHeap();
+        System.out.printf("%n%s sets retain %d bytes per like%n", sets,
+                (withLikes - withoutLikes) / ((long) films * likesPerFilm));
+    }
+
+    private Map<Long, Set<Long>> buildBoxed() {
+        Map<Long, Set<Long>> boxed = new HashMap<>();
+        for (long film = 1; film <= films; film++) {
+            for (long user = 1; user <= likesPerFilm; user++) {
+                boxed.computeIfAbsent(film, k -> new HashSet<>()).add(user * films + film);
+            }
+        }
+        return boxed;
+    }
+
+    private Map<Long, LongHashSet> buildCompact() {
+        Map<Long, LongHashSet> compact = new HashMap<>();
+        for (long film = 1; film <= films; film++) {
+            for (long user = 1; user <= likesPerFilm; user++) {
+                compact.computeIfAbsent(film, k -> new LongHashSet()).add(user * films + film);
+            }
+        }
+        return compact;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
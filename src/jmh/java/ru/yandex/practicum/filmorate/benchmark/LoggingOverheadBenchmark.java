@@ -0,0 +1,144 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.MoviePicks;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GET /films} over HTTP, returning all {@code films} films, with request/response logging {@code off}, as it
+ * was {@code before} the logging policy (Logbook logging every body in full, synchronously to the console) and as it
+ * is configured now ({@code after}: see {@code LogbookPolicy} and {@code logback-spring.xml}). The application runs
+ * with the main {@code application.properties}, which the test one shadows on this classpath, so run it from the
+ * project directory. The console goes to a temporary file.
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="LoggingOverheadBenchmark"}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Threads(4)
+@Fork(1)
+public class LoggingOverheadBenchmark {
+    // Spring Boot's default console logging, without logback-spring.xml
+    private static final String SYNC_CONSOLE_CONFIG = """
+            <configuration>
+                <include resource="org/springframework/boot/logging/logback/defaults.xml"/>
+                <include resource="org/springframework/boot/logging/logback/console-appender.xml"/>
+                <root level="INFO">
+                    <appender-ref ref="CONSOLE"/>
+                </root>
+            </configuration>
+            """;
+
+    @State(Scope.Benchmark)
+    public static class AppState {
+        @Param({"off", "before", "after"})
+        public String logging;
+
+        @Param({"1000"})
+        public int films;
+
+        ConfigurableApplicationContext context;
+        HttpClient client;
+        String baseUrl;
+        PrintStream originalOut;
+        PrintStream console;
+        Path consoleFile;
+        Path logbackConfig;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException, InterruptedException {
+            consoleFile = Files.createTempFile("filmorate-console", ".log");
+            console = new PrintStream(new BufferedOutputStream(Files.newOutputStream(consoleFile)), false);
+            originalOut = System.out;
+            System.setOut(console);
+
+            List<String> args = new ArrayList<>(List.of("--server.port=0",
+                    "--spring.config.location=file:target/classes/application.properties",
+                    "--spring.datasource.url=jdbc:h2:mem:logging-" + UUID.randomUUID()));
+            switch (logging) {
+                case "off" -> args.add("--logging.level.org.zalando.logbook=OFF");
+                case "before" -> {
+                    logbackConfig = Files.writeString(Files.createTempFile("logback", ".xml"), SYNC_CONSOLE_CONFIG);
+                    args.addAll(List.of("--logging.config=file:" + logbackConfig,
+                            "--filmorate.logging.rules[0].path=/actuator/**",
+                            "--filmorate.logging.rules[0].sample-rate=0",
+                            "--logbook.write.max-body-size=-1"));
+                }
+                case "after" -> {
+                }
+                default -> throw new IllegalArgumentException("Unknown logging mode: " + logging);
+            }
+            context = new SpringApplicationBuilder(MoviePicks.class).run(args.toArray(String[]::new));
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            seed();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            context.close();
+            System.setOut(originalOut);
+            console.close();
+            System.out.printf("%nConsole output with logging %s: %d KB%n", logging, Files.size(consoleFile) / 1024);
+            Files.delete(consoleFile);
+            if (logbackConfig != null) {
+                Files.delete(logbackConfig);
+            }
+        }
+
+        private void seed() throws IOException, InterruptedException {
+            StringBuilder ndjson = new StringBuilder();
+            for (int i = 1; i <= films; i++) {
+                ndjson.append("{\"name\":\"Film ").append(i).append("\",\"description\":\"A film number ")
+                        .append(i).append(" with a description of a typical length\",")
+                        .append("\"releaseDate\":\"2000-01-01\",\"duration\":90,\"mpa\":{\"id\":1},")
+                        .append("\"genres\":[{\"id\":1},{\"id\":2}]}\n");
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/films:bulk"))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("/films:bulk answered " + response.statusCode() + ": "
+                        + response.body());
+            }
+        }
+    }
+
+    @Benchmark
+    public int getFilms(AppState state) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(state.baseUrl + "/films")).GET().build();
+        return state.client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,189 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+import ru.yandex.practicum.filmorate.config.ChecksumSqlInitializer;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.film.JdbcFilmRepository;
+import ru.yandex.practicum.filmorate.repository.genre.CachedGenreRepository;
+import ru.yandex.practicum.filmorate.repository.genre.JdbcGenreRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.CachedMpaRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.JdbcMpaRepository;
+import ru.yandex.practicum.filmorate.repository.user.JdbcUserRepository;
+import ru.yandex.practicum.filmorate.service.film.FilmPopularityIndex;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory H2 against the file-backed storage of {@code application-file.properties}.
+ * <ul>
+ *     <li>{@code coldStart}: opens the database, initializes it as the application does and builds the popularity
+ *     index. In memory the scripts run every time on an empty database; the file database already holds
+ *     {@code films} films and skips the applied scripts.</li>
+ *     <li>{@code likeAndUnlike}: write throughput, one committed like and one committed unlike per operation.</li>
+ * </ul>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="StorageModeBenchmark -p films=100000"}
+ */
+@Fork(1)
+public class StorageModeBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class StorageState {
+        @Param({"mem", "file"})
+        public String mode;
+
+        @Param({"10000"})
+        public int films;
+
+        @Param({"500"})
+        public int writeDelayMs;
+
+        Path directory;
+        HikariDataSource dataSource;
+        JdbcFilmRepository filmRepository;
+        long userId;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("filmorate-storage");
+            dataSource = open();
+            JdbcUserRepository userRepository = new JdbcUserRepository(new NamedParameterJdbcTemplate(dataSource));
+            User user = new User();
+            user.setEmail("writer@example.com");
+            user.setLogin("writer");
+            user.setName("Writer");
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            userId = userRepository.createUser(user).getId();
+            filmRepository = repository(dataSource);
+            seed(filmRepository, userId, films);
+            if ("file".equals(mode)) {
+                // the file database keeps its data for coldStart; the in-memory one is dropped with the pool
+                dataSource.close();
+                dataSource = open();
+                filmRepository = repository(dataSource);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            dataSource.close();
+            FileSystemUtils.deleteRecursively(directory);
+        }
+
+        HikariDataSource open() {
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl("mem".equals(mode)
+                    ? "jdbc:h2:mem:storage-" + UUID.randomUUID()
+                    : "jdbc:h2:file:" + directory.resolve("filmorate") + ";CACHE_SIZE=65536;WRITE_DELAY="
+                    + writeDelayMs + ";QUERY_CACHE_SIZE=64;DB_CLOSE_ON_EXIT=FALSE");
+            config.setUsername("sa");
+            config.setMaximumPoolSize(4);
+            HikariDataSource opened = new HikariDataSource(config);
+
+            SqlInitializationProperties properties = new SqlInitializationProperties();
+            properties.setMode(DatabaseInitializationMode.ALWAYS);
+            properties.setSchemaLocations(List.of("classpath:schema.sql"));
+            properties.setDataLocations(List.of("classpath:data.sql"));
+            new ChecksumSqlInitializer(opened, properties).initializeDatabase();
+            return opened;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public int coldStart(StorageState state) {
+        HikariDataSource dataSource = "mem".equals(state.mode) ? state.open() : reopen(state);
+        try {
+            FilmPopularityIndex popularityIndex = new FilmPopularityIndex(repository(dataSource));
+            popularityIndex.rebuild();
+            return popularityIndex.getPopularFilmIds(10L).size();
+        } finally {
+            if ("mem".equals(state.mode)) {
+                dataSource.close();
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public boolean likeAndUnlike(StorageState state) {
+        long filmId = ThreadLocalRandom.current().nextLong(state.films) + 1;
+        state.filmRepository.addLike(filmId, state.userId);
+        return state.filmRepository.removeLike(filmId, state.userId);
+    }
+
+    private static HikariDataSource reopen(StorageState state) {
+        state.dataSource.close();
+        state.dataSource = state.open();
+        state.filmRepository = repository(state.dataSource);
+        return state.dataSource;
+    }
+
+    private static JdbcFilmRepository repository(HikariDataSource dataSource) {
+        NamedParameterJdbcTemplate jdbc = new NamedParameterJdbcTemplate(dataSource);
+        CachedMpaRepository mpaRepository = new CachedMpaRepository(new JdbcMpaRepository(jdbc));
+        CachedGenreRepository genreRepository = new CachedGenreRepository(new JdbcGenreRepository(jdbc));
+        mpaRepository.refresh();
+        genreRepository.refresh();
+        return new JdbcFilmRepository(jdbc, mpaRepository, genreRepository);
+    }
+
+    private static void seed(JdbcFilmRepository filmRepository, long userId, int films) {
+        List<Film> newFilms = new ArrayList<>();
+        List<Like> likes = new ArrayList<>();
+        for (int i = 1; i <= films; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description for film " + i);
+            film.setReleaseDate(LocalDate.of(1990 + i % 30, 1 + i % 12, 1 + i % 28));
+            film.setDuration(60 + i % 120);
+            film.setMpa(new Mpa(1 + i % 5, null));
+            film.setGenres(new LinkedHashSet<>(List.of(new Genre(1 + i % 6, null))));
+            newFilms.add(film);
+            if (newFilms.size() == 1000) {
+                filmRepository.addFilms(newFilms);
+                newFilms.forEach(added -> likes.add(new Like(added.getId(), userId)));
+                newFilms.clear();
+            }
+        }
+        filmRepository.addFilms(newFilms);
+        newFilms.forEach(added -> likes.add(new Like(added.getId(), userId)));
+        filmRepository.addLikes(likes);
+    }
+}
@@ -0,0 +1,140 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.film.FilmRepository;
+import ru.yandex.practicum.filmorate.repository.film.InMemoryFilmRepository;
+import ru.yandex.practicum.filmorate.repository.film.JdbcFilmRepository;
+import ru.yandex.practicum.filmorate.repository.genre.CachedGenreRepository;
+import ru.yandex.practicum.filmorate.repository.genre.JdbcGenreRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.CachedMpaRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.JdbcMpaRepository;
+import ru.yandex.practicum.filmorate.repository.user.InMemoryUserRepository;
+import ru.yandex.practicum.filmorate.repository.user.JdbcUserRepository;
+import ru.yandex.practicum.filmorate.repository.user.UserRepository;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Repositories seeded once per trial. {@code storage} selects H2 through the JDBC repositories or the in-memory ones;
+ * the sizes can be overridden from the command line, e.g. {@code -p films=10000 -p likesPerFilm=100}.
+ * The last user is a probe without likes or friends that write benchmarks use to leave the data set unchanged.
+ */
+@State(Scope.Benchmark)
+public class StorageState {
+    @Param({"jdbc", "memory"})
+    public String storage;
+
+    @Param({"1000"})
+    public int films;
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"20"})
+    public int likesPerFilm;
+
+    @Param({"20"})
+    public int friendsPerUser;
+
+    FilmRepository filmRepository;
+    UserRepository userRepository;
+    long probeUserId;
+
+    private EmbeddedDatabase database;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("jdbc".equals(storage)) {
+            database = new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .generateUniqueName(true)
+                    .addScripts("schema.sql", "data.sql")
+                    .build();
+            NamedParameterJdbcTemplate jdbc = new NamedParameterJdbcTemplate(database);
+            CachedMpaRepository mpaRepository = new CachedMpaRepository(new JdbcMpaRepository(jdbc));
+            CachedGenreRepository genreRepository = new CachedGenreRepository(new JdbcGenreRepository(jdbc));
+            mpaRepository.refresh();
+            genreRepository.refresh();
+            filmRepository = new JdbcFilmRepository(jdbc, mpaRepository, genreRepository);
+            userRepository = new JdbcUserRepository(jdbc);
+        } else {
+            filmRepository = new InMemoryFilmRepository();
+            userRepository = new InMemoryUserRepository();
+        }
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (database != null) {
+            database.shutdown();
+        }
+    }
+
+    long randomFilmId() {
+        return ThreadLocalRandom.current().nextLong(films) + 1;
+    }
+
+    long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(users) + 1;
+    }
+
+    private void seed() {
+        for (int i = 1; i <= users; i++) {
+            userRepository.createUser(newUser(i));
+        }
+        probeUserId = userRepository.createUser(newUser(users + 1)).getId();
+
+        for (int i = 1; i <= films; i++) {
+            filmRepository.addFilm(newFilm(i));
+        }
+
+        for (long filmId = 1; filmId <= films; filmId++) {
+            for (int j = 0; j < Math.min(likesPerFilm, users); j++) {
+                filmRepository.addLike(filmId, (filmId * 31 + j) % users + 1);
+            }
+        }
+
+        for (long userId = 1; userId <= users; userId++) {
+            for (int j = 1; j <= Math.min(friendsPerUser, users - 1); j++) {
+                userRepository.addFriend(userId, (userId + j * 7L) % users + 1);
+            }
+        }
+    }
+
+    private static Film newFilm(int i) {
+        Film film = new Film();
+        film.setName("Film " + i);
+        film.setDescription("Description for film " + i);
+        film.setReleaseDate(LocalDate.of(1990 + i % 30, 1 + i % 12, 1 + i % 28));
+        film.setDuration(60 + i % 120);
+        film.setMpa(new Mpa(1 + i % 5, null));
+        film.setGenres(new LinkedHashSet<>(List.of(new Genre(1 + i % 6, null), new Genre(1 + (i + 1) % 6, null))));
+        return film;
+    }
+
+    private static User newUser(int i) {
+        User user = new User();
+        user.setEmail("user" + i + "@example.com");
+        user.setLogin("user" + i);
+        user.setName("User " + i);
+        user.setBirthday(LocalDate.of(1970 + i % 40, 1 + i % 12, 1 + i % 28));
+        return user;
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserRepositoryBenchmark {
+
+    @Benchmark
+    public User getUserById(StorageState state) {
+        return state.userRepository.getUserById(state.randomUserId());
+    }
+
+    @Benchmark
+    public boolean existsById(StorageState state) {
+        return state.userRepository.existsById(state.randomUserId());
+    }
+
+    @Benchmark
+    public Collection<User> getAllUsers(StorageState state) {
+        return state.userRepository.getAllUsers();
+    }
+
+    @Benchmark
+    public Collection<User> getUsersPage(StorageState state) {
+        return state.userRepository.getUsersPage(state.randomUserId(), 50);
+    }
+
+    @Benchmark
+    public Set<User> getAllFriends(StorageState state) {
+        return state.userRepository.getAllFriends(state.randomUserId());
+    }
+
+    @Benchmark
+    public Set<User> getCommonFriends(StorageState state) {
+        return state.userRepository.getCommonFriends(state.randomUserId(), state.randomUserId());
+    }
+
+    @Benchmark
+    public void addAndRemoveFriend(StorageState state) {
+        long friendId = state.randomUserId();
+        state.userRepository.addFriend(state.probeUserId, friendId);
+        state.userRepository.removeFriend(state.probeUserId, friendId);
+    }
+}
@@ -0,0 +1,175 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import ru.yandex.practicum.filmorate.MoviePicks;
+import ru.yandex.practicum.filmorate.repository.user.JdbcUserRepository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole application over HTTP with platform ({@code server.tomcat.threads.max} workers) or virtual request
+ * threads. Every connection checkout holds the connection for {@code dbLatencyMs} to model slow queries, so the
+ * {@code friends} clients, which hit the database, outnumber the pool, while the {@code genres} clients are served
+ * from the cached genre snapshot. Throughput and the p99 of {@code SampleTime} are reported per endpoint:
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="WebThreadingBenchmark"}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class WebThreadingBenchmark {
+    private static volatile long connectionLatencyMs;
+
+    @State(Scope.Benchmark)
+    public static class AppState {
+        @Param({"platform", "virtual"})
+        public String threading;
+
+        @Param({"5"})
+        public long dbLatencyMs;
+
+        @Param({"16"})
+        public int tomcatThreads;
+
+        @Param({"200"})
+        public int users;
+
+        @Param({"20"})
+        public int friendsPerUser;
+
+        ConfigurableApplicationContext context;
+        HttpClient client;
+        String baseUrl;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException, InterruptedException {
+            connectionLatencyMs = 0;
+            context = new SpringApplicationBuilder(MoviePicks.class)
+                    .initializers(context -> context.getBeanFactory().addBeanPostProcessor(new SlowConnections()))
+                    .run("--server.port=0",
+                            "--server.tomcat.threads.max=" + tomcatThreads,
+                            "--spring.threads.virtual.enabled=" + "virtual".equals(threading),
+                            "--spring.datasource.url=jdbc:h2:mem:web-" + UUID.randomUUID(),
+                            "--spring.datasource.hikari.maximum-pool-size=8",
+                            "--logging.level.root=WARN",
+                            "--logging.level.org.zalando.logbook=WARN");
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            seed();
+            connectionLatencyMs = dbLatencyMs;
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            connectionLatencyMs = 0;
+            context.close();
+        }
+
+        int get(String path) throws IOException, InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+
+        private void seed() throws IOException, InterruptedException {
+            StringBuilder films = new StringBuilder();
+            for (int i = 1; i <= 100; i++) {
+                films.append("{\"name\":\"Film ").append(i).append("\",\"description\":\"Film ").append(i)
+                        .append("\",\"releaseDate\":\"2000-01-01\",\"duration\":90,\"mpa\":{\"id\":1}}\n");
+            }
+            post("/films:bulk", films.toString());
+
+            StringBuilder newUsers = new StringBuilder();
+            for (int i = 1; i <= users; i++) {
+                newUsers.append("{\"email\":\"user").append(i).append("@example.com\",\"login\":\"user").append(i)
+                        .append("\",\"birthday\":\"1990-01-01\"}\n");
+            }
+            post("/users:bulk", newUsers.toString());
+
+            JdbcUserRepository userRepository = context.getBean(JdbcUserRepository.class);
+            for (long userId = 1; userId <= users; userId++) {
+                for (int i = 1; i <= friendsPerUser; i++) {
+                    userRepository.addFriend(userId, (userId + i - 1) % users + 1);
+                }
+            }
+        }
+
+        private void post(String path, String ndjson) throws IOException, InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(ndjson))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException(path + " answered " + response.statusCode() + ": " + response.body());
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public int genres(AppState state) throws IOException, InterruptedException {
+        return state.get("/genres");
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(60)
+    public int friends(AppState state) throws IOException, InterruptedException {
+        return state.get("/users/" + (ThreadLocalRandom.current().nextInt(state.users) + 1) + "/friends");
+    }
+
+    private static class SlowConnections implements BeanPostProcessor {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    Connection connection = super.getConnection();
+                    long latency = connectionLatencyMs;
+                    if (latency > 0) {
+                        try {
+                            Thread.sleep(latency);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return connection;
+                }
+            };
+        }
+    }
+}
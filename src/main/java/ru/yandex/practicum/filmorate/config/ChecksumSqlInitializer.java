@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Runs {@code spring.sql.init} scripts only when their content has changed since they were last applied to the
+ * database, so a persistent database is not re-initialized on every start. The scripts are idempotent, so
+ * re-running an edited script over an existing database is safe. Applied checksums are kept in
+ * {@code schema_checksums}.
+ */
+@Slf4j
+public class ChecksumSqlInitializer extends SqlDataSourceScriptDatabaseInitializer {
+    private final JdbcTemplate jdbc;
+
+    public ChecksumSqlInitializer(DataSource dataSource, SqlInitializationProperties properties) {
+        super(dataSource, properties);
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    protected void runScripts(Scripts scripts) {
+        List<Resource> resources = new ArrayList<>();
+        scripts.forEach(resources::add);
+        if (resources.isEmpty()) {
+            return;
+        }
+
+        jdbc.execute("CREATE TABLE IF NOT EXISTS schema_checksums (" +
+                "checksum VARCHAR(64) PRIMARY KEY, scripts VARCHAR(1000), applied_at TIMESTAMP NOT NULL)");
+        String checksum = checksum(resources);
+        String names = resources.stream().map(Resource::getFilename).toList().toString();
+        Integer applied = jdbc.queryForObject("SELECT COUNT(*) FROM schema_checksums WHERE checksum = ?",
+                Integer.class, checksum);
+        if (applied != null && applied > 0) {
+            log.info("Scripts {} are already applied", names);
+            return;
+        }
+
+        log.info("Applying scripts {}", names);
+        super.runScripts(scripts);
+        jdbc.update("INSERT INTO schema_checksums (checksum, scripts, applied_at) VALUES (?, ?, CURRENT_TIMESTAMP)",
+                checksum, names);
+    }
+
+    private static String checksum(List<Resource> resources) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Resource resource : resources) {
+                try (InputStream in = resource.getInputStream()) {
+                    digest.update(in.readAllBytes());
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+
+/**
+ * Durable storage ({@code application-file.properties}): replaces Boot's script initializer with one that applies
+ * the init scripts only once per version.
+ */
+@Configuration
+@Profile("file")
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+public class FileStorageConfig {
+
+    @Bean
+    public ChecksumSqlInitializer checksumSqlInitializer(DataSource dataSource, SqlInitializationProperties properties) {
+        return new ChecksumSqlInitializer(dataSource, properties);
+    }
+}
@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Logs the effective connection pool and JDBC settings once the application has started, so that a deployment can
+ * be checked against its configuration without a debugger.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JdbcSettingsReport {
+    private final DataSource dataSource;
+    private final JdbcProperties jdbcProperties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        JdbcProperties.Template template = jdbcProperties.getTemplate();
+        if (dataSource instanceof HikariDataSource hikari) {
+            log.info("Connection pool {}: url {}, max size {}, min idle {}, connection timeout {} ms, " +
+                            "max lifetime {} ms; JDBC fetch size {}, query timeout {}",
+                    hikari.getPoolName(), hikari.getJdbcUrl(), hikari.getMaximumPoolSize(), hikari.getMinimumIdle(),
+                    hikari.getConnectionTimeout(), hikari.getMaxLifetime(),
+                    template.getFetchSize(), template.getQueryTimeout());
+        } else {
+            log.info("Data source {}; JDBC fetch size {}, query timeout {}",
+                    dataSource.getClass().getSimpleName(), template.getFetchSize(), template.getQueryTimeout());
+        }
+    }
+}
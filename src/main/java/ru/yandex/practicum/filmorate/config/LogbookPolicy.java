@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Which requests Logbook logs and whether it buffers and logs their bodies ({@code filmorate.logging.rules}). The
+ * first rule whose method (any when empty) and path pattern match a request decides; requests matching no rule are
+ * logged in full. A request is logged with the probability {@code sample-rate}, so {@code 0} turns logging off.
+ */
+@ConfigurationProperties("filmorate.logging")
+public class LogbookPolicy {
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    @Getter
+    @Setter
+    private List<Rule> rules = new ArrayList<>();
+
+    public boolean shouldLog(String method, String path) {
+        Rule rule = findRule(method, path);
+        if (rule == null || rule.getSampleRate() >= 1) {
+            return true;
+        }
+        return rule.getSampleRate() > 0 && ThreadLocalRandom.current().nextDouble() < rule.getSampleRate();
+    }
+
+    public boolean shouldLogBody(String method, String path) {
+        Rule rule = findRule(method, path);
+        return rule == null || rule.isBody();
+    }
+
+    private Rule findRule(String method, String path) {
+        for (Rule rule : rules) {
+            if ((rule.getMethod() == null || rule.getMethod().equalsIgnoreCase(method))
+                    && PATH_MATCHER.match(rule.getPath(), path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    @Getter
+    @Setter
+    public static class Rule {
+        private String method;
+        private String path;
+        private boolean body = true;
+        private double sampleRate = 1;
+    }
+}
@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Strategy;
+
+import java.io.IOException;
+import java.util.function.Predicate;
+
+/**
+ * Applies the {@link LogbookPolicy} to Logbook: the request condition drops the requests that are not sampled before
+ * anything is recorded, and the strategy keeps Logbook from buffering the bodies it would not log.
+ */
+@Configuration
+@EnableConfigurationProperties(LogbookPolicy.class)
+public class LogbookPolicyConfig {
+
+    // replaces Logbook's own condition, so logbook.predicate.* no longer applies
+    @Bean
+    public Predicate<HttpRequest> requestCondition(LogbookPolicy policy) {
+        return request -> policy.shouldLog(request.getMethod(), request.getPath());
+    }
+
+    @Bean
+    public Strategy logbookStrategy(LogbookPolicy policy) {
+        return new Strategy() {
+            @Override
+            public HttpRequest process(HttpRequest request) throws IOException {
+                return policy.shouldLogBody(request.getMethod(), request.getPath())
+                        ? request.withBody() : request.withoutBody();
+            }
+
+            @Override
+            public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+                return policy.shouldLogBody(request.getMethod(), request.getPath())
+                        ? response.withBody() : response.withoutBody();
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.yandex.practicum.filmorate.repository.InstrumentedJdbcTemplate;
+import ru.yandex.practicum.filmorate.repository.film.LikeWriteBuffer;
+
+/**
+ * Replaces the auto-configured {@link NamedParameterJdbcTemplate} with one that counts statements and publishes the
+ * like write-behind buffer state. Metrics are exposed at {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public NamedParameterJdbcTemplate namedParameterJdbcTemplate(JdbcTemplate jdbcTemplate,
+                                                                 MeterRegistry meterRegistry) {
+        return new InstrumentedJdbcTemplate(jdbcTemplate, meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder likeWriteBufferMetrics(LikeWriteBuffer likeWriteBuffer) {
+        return registry -> {
+            Gauge.builder("filmorate.likes.write-behind.queue", likeWriteBuffer, LikeWriteBuffer::getQueueDepth)
+                    .description("Like operations waiting to be flushed")
+                    .register(registry);
+            FunctionCounter.builder("filmorate.likes.write-behind.flushed", likeWriteBuffer,
+                            LikeWriteBuffer::getFlushedOperations)
+                    .description("Like operations written to the database")
+                    .register(registry);
+            FunctionCounter.builder("filmorate.likes.write-behind.failed", likeWriteBuffer,
+                            LikeWriteBuffer::getFailedOperations)
+                    .description("Like operations dropped after a failed flush")
+                    .register(registry);
+            Gauge.builder("filmorate.likes.write-behind.last-flush", likeWriteBuffer,
+                            buffer -> buffer.getLastFlushDuration().toNanos() / 1e9)
+                    .description("Duration of the last flush")
+                    .baseUnit("seconds")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every method of the film, user, genre and MPA repositories ({@code filmorate.repository.calls}, tagged with
+ * the implementation, the method and the outcome) and records the size of returned collections and maps
+ * ({@code filmorate.repository.rows}). Calls a repository makes on itself are not intercepted.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<MeterKey, Timers> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MeterKey, DistributionSummary> rows = new ConcurrentHashMap<>();
+
+    @Around("execution(* ru.yandex.practicum.filmorate.repository.film.FilmRepository.*(..))"
+            + " || execution(* ru.yandex.practicum.filmorate.repository.user.UserRepository.*(..))"
+            + " || execution(* ru.yandex.practicum.filmorate.repository.genre.GenreRepository.*(..))"
+            + " || execution(* ru.yandex.practicum.filmorate.repository.mpa.MpaRepository.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        MeterKey key = new MeterKey(joinPoint.getTarget().getClass().getSimpleName(),
+                joinPoint.getSignature().getName());
+        Timers methodTimers = timers.computeIfAbsent(key,
+                k -> new Timers(timer(k, "success"), timer(k, "error")));
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            methodTimers.success().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (result instanceof Collection<?> collection) {
+                rows(key).record(collection.size());
+            } else if (result instanceof Map<?, ?> map) {
+                rows(key).record(map.size());
+            }
+            return result;
+        } catch (Throwable e) {
+            methodTimers.error().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private DistributionSummary rows(MeterKey key) {
+        return rows.computeIfAbsent(key, k -> DistributionSummary.builder("filmorate.repository.rows")
+                .description("Size of the collections returned by repository methods")
+                .tag("repository", k.repository())
+                .tag("method", k.method())
+                .register(meterRegistry));
+    }
+
+    private Timer timer(MeterKey key, String outcome) {
+        return Timer.builder("filmorate.repository.calls")
+                .description("Repository method latency")
+                .tag("repository", key.repository())
+                .tag("method", key.method())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record MeterKey(String repository, String method) {
+    }
+
+    private record Timers(Timer success, Timer error) {
+    }
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.yandex.practicum.filmorate.repository.SqlRequestStats;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Records the number of SQL statements and rows each request issues ({@code filmorate.http.sql.statements} and
+ * {@code filmorate.http.sql.rows}, tagged with the method and the URI pattern), to find the endpoints behind the
+ * database load. A request issuing more than {@code filmorate.sql.budget.statements} statements, or the same SQL
+ * {@code filmorate.sql.budget.repeated-statement} times or more (an N+1 pattern), is logged as a warning and counted in
+ * {@code filmorate.http.sql.budget.exceeded}. Statements of streamed response bodies run on another thread and are
+ * not included.
+ */
+@Slf4j
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+    private final int statementBudget;
+    private final int repeatedStatementThreshold;
+
+    @Autowired
+    public RequestMetricsFilter(MeterRegistry meterRegistry,
+                                @Value("${filmorate.sql.budget.statements:20}") int statementBudget,
+                                @Value("${filmorate.sql.budget.repeated-statement:5}") int repeatedStatementThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.statementBudget = statementBudget;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlRequestStats stats = SqlRequestStats.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlRequestStats.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            summary("filmorate.http.sql.statements", "SQL statements issued per request", request, uri)
+                    .record(stats.getStatements());
+            summary("filmorate.http.sql.rows", "Rows read per request", request, uri)
+                    .record(stats.getRows());
+            checkBudget(request, uri, stats);
+        }
+    }
+
+    private void checkBudget(HttpServletRequest request, String uri, SqlRequestStats stats) {
+        if (stats.getStatements() > statementBudget) {
+            log.warn("{} {} issued {} SQL statements, over the budget of {}",
+                    request.getMethod(), request.getRequestURI(), stats.getStatements(), statementBudget);
+            budgetExceeded(request, uri, "statements");
+        }
+        Map<String, Integer> repeated = stats.getRepeatedStatements(repeatedStatementThreshold);
+        if (!repeated.isEmpty()) {
+            repeated.forEach((sql, times) -> log.warn("{} {} issued the same SQL {} times: {}",
+                    request.getMethod(), request.getRequestURI(), times, sql.replaceAll("\\s+", " ").trim()));
+            budgetExceeded(request, uri, "repeated");
+        }
+    }
+
+    private void budgetExceeded(HttpServletRequest request, String uri, String reason) {
+        meterRegistry.counter("filmorate.http.sql.budget.exceeded",
+                "method", request.getMethod(), "uri", uri, "reason", reason).increment();
+    }
+
+    private DistributionSummary summary(String name, String description, HttpServletRequest request, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry);
+    }
+}
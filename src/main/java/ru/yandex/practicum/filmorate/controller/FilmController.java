@@ -1,23 +1,40 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.LikeOperation;
+import ru.yandex.practicum.filmorate.model.LikeResult;
 import ru.yandex.practicum.filmorate.service.film.FilmService;
 import ru.yandex.practicum.filmorate.validation.CreateGroup;
 import ru.yandex.practicum.filmorate.validation.UpdateGroup;
 
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping("/films")
 @RequiredArgsConstructor
 public class FilmController {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_LIKE_BATCH_SIZE = 1000;
 
     private final FilmService filmService;
+    private final NdjsonWriter ndjsonWriter;
 
     @PostMapping
     @Validated(CreateGroup.class)
@@ -33,16 +50,33 @@ public class FilmController {
         return filmService.updateFilm(film);
     }
 
+    // the ETag comes from memory and is only given for an existing film, so a matching If-None-Match is answered
+    // with 304 before the film is read, and a missing film with 404
     @GetMapping("/{id}")
-    @ResponseStatus(HttpStatus.OK)
-    public Film getFilmById(@PathVariable Long id) {
-        return filmService.getFilmById(id);
+    public ResponseEntity<Film> getFilmById(@PathVariable Long id, WebRequest request) {
+        String eTag = filmService.getFilmETag(id);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag)
+                .body(filmService.getFilmById(id));
     }
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public Collection<Film> getAllFilms() {
-        return filmService.getAllFilms();
+    public Collection<Film> getAllFilms(@RequestParam(required = false) Long after,
+                                        @RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer limit) {
+        if (after == null && limit == null) {
+            return filmService.getAllFilms();
+        }
+        return filmService.getFilmsPage(after, limit == null ? DEFAULT_PAGE_SIZE : limit);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllFilms() {
+        return ndjsonWriter.write(filmService::streamAllFilms);
     }
 
     @PutMapping("/{id}/like/{userId}")
@@ -57,9 +91,23 @@ public class FilmController {
         filmService.removeLike(id, userId);
     }
 
-    @GetMapping("/popular")
+    @PostMapping("/likes:batch")
     @ResponseStatus(HttpStatus.OK)
-    public Collection<Film> getPopularFilms(@RequestParam(defaultValue = "10") Long count) {
-        return filmService.getPopularMovies(count);
+    public List<LikeResult> applyLikes(@RequestBody @NotEmpty @Size(max = MAX_LIKE_BATCH_SIZE)
+                                       List<@Valid @NotNull LikeOperation> operations) {
+        return filmService.applyLikes(operations);
+    }
+
+    @GetMapping("/popular")
+    public ResponseEntity<Collection<Film>> getPopularFilms(@RequestParam(defaultValue = "10") Long count,
+                                                            WebRequest request) {
+        String eTag = filmService.getPopularFilmsETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag)
+                .body(filmService.getPopularMovies(count));
     }
 }
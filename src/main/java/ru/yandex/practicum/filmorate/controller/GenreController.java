@@ -1,6 +1,9 @@
 package ru.yandex.practicum.filmorate.controller;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -8,22 +11,36 @@ import org.springframework.web.bind.annotation.RestController;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.service.genre.GenreService;
 
+import java.time.Duration;
 import java.util.Collection;
 
 @RestController
 @RequestMapping("/genres")
-@RequiredArgsConstructor
 public class GenreController {
     private final GenreService genreService;
+    private final CacheControl cacheControl;
 
-    @GetMapping
-    public Collection<Genre> getAllGenres() {
-        return genreService.getAllGenres();
+    @Autowired
+    public GenreController(GenreService genreService,
+                           @Value("${filmorate.http.reference-max-age:1h}") Duration referenceMaxAge) {
+        this.genreService = genreService;
+        this.cacheControl = CacheControl.maxAge(referenceMaxAge).cachePublic();
+    }
 
+    // a matching If-None-Match is answered with 304 by Spring MVC, the body comes from memory
+    @GetMapping
+    public ResponseEntity<Collection<Genre>> getAllGenres() {
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(genreService.getAllGenresETag())
+                .body(genreService.getAllGenres());
     }
 
     @GetMapping("/{id}")
-    public Genre getGenreById(@PathVariable Integer id) {
-        return genreService.getGenreById(id);
+    public ResponseEntity<Genre> getGenreById(@PathVariable Integer id) {
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(genreService.getGenreETag(id))
+                .body(genreService.getGenreById(id));
     }
 }
@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.film.FilmService;
+import ru.yandex.practicum.filmorate.service.user.UserService;
+
+import java.io.InputStream;
+
+@RestController
+@RequiredArgsConstructor
+public class ImportController {
+    private final FilmService filmService;
+    private final UserService userService;
+    private final JsonRecordReader jsonRecordReader;
+
+    @PostMapping(path = "/films:bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @ResponseStatus(HttpStatus.OK)
+    public ImportResult importFilms(InputStream body) {
+        return filmService.importFilms(jsonRecordReader.read(body, Film.class));
+    }
+
+    @PostMapping(path = "/users:bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @ResponseStatus(HttpStatus.OK)
+    public ImportResult importUsers(InputStream body) {
+        return userService.importUsers(jsonRecordReader.read(body, User.class));
+    }
+}
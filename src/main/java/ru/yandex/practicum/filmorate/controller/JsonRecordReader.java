@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.ImportRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a JSON array or newline-delimited JSON one record at a time, so the input never has to fit in memory.
+ * A record that is well-formed JSON but cannot be bound to the target type is returned with an error and reading
+ * goes on; malformed JSON is returned as a terminal record, with its position and byte offset, and ends the input.
+ * Records before it may already be imported, so it is reported in the import result rather than failing the request.
+ */
+@Component
+public class JsonRecordReader {
+    private final ObjectReader reader;
+
+    public JsonRecordReader(ObjectMapper objectMapper) {
+        this.reader = objectMapper.reader();
+    }
+
+    public <T> Iterator<ImportRecord<T>> read(InputStream body, Class<T> type) {
+        try {
+            return new RecordIterator<>(reader.forType(type).readValues(body));
+        } catch (IOException e) {
+            return new RecordIterator<>(malformed(1, e));
+        }
+    }
+
+    private static <T> ImportRecord<T> malformed(long record, IOException e) {
+        String message = e.getMessage();
+        String offset = "";
+        if (e instanceof JsonProcessingException jsonException) {
+            message = jsonException.getOriginalMessage();
+            JsonLocation location = jsonException.getLocation();
+            if (location != null && location.getByteOffset() >= 0) {
+                offset = ", offset " + location.getByteOffset();
+            } else if (location != null && location.getCharOffset() >= 0) {
+                offset = ", offset " + location.getCharOffset();
+            }
+        }
+        return new ImportRecord<>(record, null, "Malformed JSON at record " + record + offset + ": " + message, true);
+    }
+
+    private static class RecordIterator<T> implements Iterator<ImportRecord<T>> {
+        private final MappingIterator<T> values;
+        private ImportRecord<T> terminal;
+        private boolean ended;
+        private long record;
+
+        RecordIterator(MappingIterator<T> values) {
+            this.values = values;
+        }
+
+        RecordIterator(ImportRecord<T> terminal) {
+            this.values = null;
+            this.terminal = terminal;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (ended) {
+                return false;
+            }
+            if (terminal != null) {
+                return true;
+            }
+            try {
+                return values.hasNextValue();
+            } catch (IOException e) {
+                terminal = malformed(record + 1, e);
+                return true;
+            }
+        }
+
+        @Override
+        public ImportRecord<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            record++;
+            if (terminal != null) {
+                ended = true;
+                return terminal;
+            }
+            try {
+                return new ImportRecord<>(record, values.nextValue(), null);
+            } catch (JsonMappingException e) {
+                return new ImportRecord<>(record, null, e.getOriginalMessage());
+            } catch (IOException e) {
+                ended = true;
+                return malformed(record, e);
+            }
+        }
+    }
+}
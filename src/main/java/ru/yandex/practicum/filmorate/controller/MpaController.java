@@ -1,6 +1,9 @@
 package ru.yandex.practicum.filmorate.controller;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -8,23 +11,36 @@ import org.springframework.web.bind.annotation.RestController;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.service.mpa.MpaService;
 
+import java.time.Duration;
 import java.util.Collection;
 
 @RestController
 @RequestMapping("/mpa")
-@RequiredArgsConstructor
 public class MpaController {
     private final MpaService mpaService;
+    private final CacheControl cacheControl;
 
-    @GetMapping
-    public Collection<Mpa> getAllMpa() {
-        return mpaService.getAllMpa();
+    @Autowired
+    public MpaController(MpaService mpaService,
+                         @Value("${filmorate.http.reference-max-age:1h}") Duration referenceMaxAge) {
+        this.mpaService = mpaService;
+        this.cacheControl = CacheControl.maxAge(referenceMaxAge).cachePublic();
+    }
 
+    // a matching If-None-Match is answered with 304 by Spring MVC, the body comes from memory
+    @GetMapping
+    public ResponseEntity<Collection<Mpa>> getAllMpa() {
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(mpaService.getAllMpaETag())
+                .body(mpaService.getAllMpa());
     }
 
     @GetMapping("/{id}")
-    public Mpa getMpaById(@PathVariable Integer id) {
-        return mpaService.getMpaById(id);
-
+    public ResponseEntity<Mpa> getMpaById(@PathVariable Integer id) {
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(mpaService.getMpaETag(id))
+                .body(mpaService.getMpaById(id));
     }
 }
@@ -2,11 +2,18 @@ package ru.yandex.practicum.filmorate.controller;
 
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.film.FilmService;
 import ru.yandex.practicum.filmorate.service.user.UserService;
 import ru.yandex.practicum.filmorate.validation.CreateGroup;
 import ru.yandex.practicum.filmorate.validation.UpdateGroup;
@@ -18,7 +25,14 @@ import java.util.Collection;
 @Validated
 @RequiredArgsConstructor
 public class UserController {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_SUGGESTIONS = 100;
+    private static final int MAX_RECOMMENDATIONS = 100;
+
     private final UserService userService;
+    private final FilmService filmService;
+    private final NdjsonWriter ndjsonWriter;
 
     @PostMapping
     @Validated(CreateGroup.class)
@@ -42,8 +56,17 @@ public class UserController {
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public Collection<User> getAllUsers() {
-        return userService.getAllUsers();
+    public Collection<User> getAllUsers(@RequestParam(required = false) Long after,
+                                        @RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer limit) {
+        if (after == null && limit == null) {
+            return userService.getAllUsers();
+        }
+        return userService.getUsersPage(after, limit == null ? DEFAULT_PAGE_SIZE : limit);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return ndjsonWriter.write(userService::streamAllUsers);
     }
 
     @PutMapping("/{id}/friends/{friendId}")
@@ -64,11 +87,35 @@ public class UserController {
         return userService.getAllFriends(id);
     }
 
+    @GetMapping("/{id}/followers")
+    @ResponseStatus(HttpStatus.OK)
+    public Collection<User> getFollowers(@PathVariable Long id) {
+        return userService.getFollowers(id);
+    }
+
+    @GetMapping("/{id}/likes")
+    @ResponseStatus(HttpStatus.OK)
+    public Collection<Film> getLikedFilms(@PathVariable Long id) {
+        return filmService.getLikedFilms(id);
+    }
+
+    @GetMapping("/{id}/friends/suggestions")
+    @ResponseStatus(HttpStatus.OK)
+    public Collection<User> getFriendSuggestions(@PathVariable Long id,
+                                                 @RequestParam(defaultValue = "10") @Positive @Max(MAX_SUGGESTIONS) Integer count) {
+        return userService.getFriendSuggestions(id, count);
+    }
+
     @GetMapping("/{id}/friends/common/{otherId}")
     @ResponseStatus(HttpStatus.OK)
     public Collection<User> getCommonFriends(@PathVariable Long id, @PathVariable Long otherId) {
         return userService.getCommonFriends(id, otherId);
     }
-}
-
 
+    @GetMapping("/{id}/recommendations")
+    @ResponseStatus(HttpStatus.OK)
+    public Collection<Film> getRecommendations(@PathVariable Long id,
+                                               @RequestParam(defaultValue = "10") @Positive @Max(MAX_RECOMMENDATIONS) Integer count) {
+        return filmService.getRecommendations(id, count);
+    }
+}
@@ -1,11 +1,13 @@
 package ru.yandex.practicum.filmorate.exception;
 
+import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import ru.yandex.practicum.filmorate.model.CustomErrorResponse;
 
 @RestControllerAdvice
@@ -19,7 +21,8 @@ public class ErrorHandler {
         return new CustomErrorResponse(e.getMessage());
     }
 
-    @ExceptionHandler({MethodArgumentNotValidException.class, InvalidGenreException.class, InvalidMpaException.class})
+    @ExceptionHandler({MethodArgumentNotValidException.class, ConstraintViolationException.class,
+            HandlerMethodValidationException.class, InvalidGenreException.class, InvalidMpaException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public CustomErrorResponse handleMethodArgumentNotValidException(final Exception e) {
         log.info("400 Bad Request: {}", e.getMessage());
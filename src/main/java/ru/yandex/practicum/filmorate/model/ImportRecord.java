@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * One record of a bulk import: its 1-based position in the input and either the parsed value or the reason
+ * it could not be parsed. A terminal record marks malformed input: nothing after it can be read.
+ */
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ImportRecord<T> {
+    final long record;
+    final T value;
+    final String error;
+    final boolean terminal;
+
+    public ImportRecord(long record, T value, String error) {
+        this(record, value, error, false);
+    }
+}
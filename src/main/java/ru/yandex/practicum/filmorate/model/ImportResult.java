@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ImportResult {
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    long imported;
+    long failed;
+    List<ImportError> errors = new ArrayList<>();
+    /**
+     * Where the input stopped being valid JSON, if it did; the records before it are imported or reported.
+     */
+    ImportError terminalError;
+
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    /**
+     * Counts every failure but keeps only the first {@link #MAX_REPORTED_ERRORS} messages.
+     */
+    public void addError(long record, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new ImportError(record, message));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.model;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LikeOperation {
+    @NotNull(message = "Film id cannot be null")
+    Long filmId;
+
+    @NotNull(message = "User id cannot be null")
+    Long userId;
+
+    Action action = Action.LIKE;
+
+    public enum Action {
+        LIKE,
+        UNLIKE
+    }
+}
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LikeResult {
+    final Long filmId;
+    final Long userId;
+    final LikeOperation.Action action;
+    final Status status;
+
+    public enum Status {
+        ADDED,
+        REMOVED,
+        UNCHANGED,
+        SUPERSEDED,
+        FILM_NOT_FOUND,
+        USER_NOT_FOUND
+    }
+}
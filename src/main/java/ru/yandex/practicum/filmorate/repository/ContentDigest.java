@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * SHA-256 of a list of lines, truncated to 128 bits: a version of cached data that changes with its content, unlike
+ * a counter, and does not collide like a 32-bit hash code.
+ */
+public final class ContentDigest {
+    private static final int BYTES = 16;
+
+    private ContentDigest() {
+    }
+
+    public static String of(String line) {
+        return of(List.of(line));
+    }
+
+    public static String of(List<String> lines) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        for (String line : lines) {
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, BYTES);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.List;
+
+/**
+ * Counts the statements issued through the repositories' {@link NamedParameterJdbcTemplate}, in total
+ * ({@code filmorate.jdbc.statements}) and for the current request ({@link SqlRequestStats}), together with the rows
+ * read by row mappers and row callback handlers. A batch counts as one statement.
+ */
+public class InstrumentedJdbcTemplate extends NamedParameterJdbcTemplate {
+    private final Counter statements;
+
+    public InstrumentedJdbcTemplate(JdbcOperations classicJdbcTemplate, MeterRegistry meterRegistry) {
+        super(classicJdbcTemplate);
+        this.statements = Counter.builder("filmorate.jdbc.statements")
+                .description("SQL statements issued by the repositories")
+                .register(meterRegistry);
+    }
+
+    // the other query methods delegate to these three
+    @Override
+    public <T> List<T> query(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper) {
+        List<T> result = super.query(sql, paramSource, rowMapper);
+        SqlRequestStats.rowsRead(result.size());
+        return result;
+    }
+
+    @Override
+    public void query(String sql, SqlParameterSource paramSource, RowCallbackHandler rch) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats == null) {
+            super.query(sql, paramSource, rch);
+            return;
+        }
+        super.query(sql, paramSource, (RowCallbackHandler) rs -> {
+            stats.rowRead();
+            rch.processRow(rs);
+        });
+    }
+
+    @Override
+    public <T> T queryForObject(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper) {
+        T result = super.queryForObject(sql, paramSource, rowMapper);
+        SqlRequestStats.rowsRead(1);
+        return result;
+    }
+
+    // every query, update and batch of NamedParameterJdbcTemplate parses its SQL exactly once
+    @Override
+    protected ParsedSql getParsedSql(String sql) {
+        statements.increment();
+        SqlRequestStats.statementIssued(sql);
+        return super.getParsedSql(sql);
+    }
+}
@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.repository;
+
+/**
+ * Map from positive {@code long} ids to {@code int} counters without boxing, for per-request scoring.
+ * Open addressing with linear probing like {@link LongHashSet}; not thread-safe and without removal.
+ */
+public class LongIntHashMap {
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 4 / 3) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    public void addTo(long key, int delta) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Only positive ids can be stored, got " + key);
+        }
+        int slot = findSlot(keys, key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] += delta;
+        if (size > keys.length * 3 / 4) {
+            resize(keys.length * 2);
+        }
+    }
+
+    public int get(long key) {
+        int slot = findSlot(keys, key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                int newSlot = findSlot(keys, oldKeys[slot]);
+                keys[newSlot] = oldKeys[slot];
+                values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+
+    private static int findSlot(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int i = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, int value);
+    }
+}
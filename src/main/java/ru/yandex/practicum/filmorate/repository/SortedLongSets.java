@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import java.util.Arrays;
+
+/**
+ * Operations on ascending, duplicate-free {@code long[]} id lists.
+ */
+public final class SortedLongSets {
+    /**
+     * Above this size ratio the smaller list gallops through the larger one instead of a linear merge.
+     */
+    private static final int GALLOP_RATIO = 16;
+
+    private SortedLongSets() {
+    }
+
+    public static long[] intersect(long[] first, long[] second) {
+        long[] smaller = first.length <= second.length ? first : second;
+        long[] larger = smaller == first ? second : first;
+
+        long[] result = new long[smaller.length];
+        int size = 0;
+        if ((long) smaller.length * GALLOP_RATIO < larger.length) {
+            int from = 0;
+            for (long value : smaller) {
+                from = gallop(larger, from, value);
+                if (from == larger.length) {
+                    break;
+                }
+                if (larger[from] == value) {
+                    result[size++] = value;
+                    from++;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < smaller.length && j < larger.length) {
+                if (smaller[i] < larger[j]) {
+                    i++;
+                } else if (smaller[i] > larger[j]) {
+                    j++;
+                } else {
+                    result[size++] = smaller[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Returns the first index at or after {@code from} whose value is not less than {@code target},
+     * or {@code values.length}, probing exponentially growing steps before a binary search.
+     */
+    private static int gallop(long[] values, int from, long target) {
+        int low = from;
+        int high = from;
+        int step = 1;
+        while (high < values.length && values[high] < target) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        high = Math.min(high, values.length);
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL statements issued and rows read by the current thread between {@link #start()} and {@link #stop()}, reported by
+ * {@link InstrumentedJdbcTemplate}. Statements issued outside of that window are not tracked. A statement issued
+ * several times with the same SQL, typically from a loop over the results of another one, shows up in
+ * {@link #getRepeatedStatements(int)}.
+ */
+@Getter
+public final class SqlRequestStats {
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long rows;
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+
+    private SqlRequestStats() {
+    }
+
+    public static SqlRequestStats start() {
+        SqlRequestStats stats = new SqlRequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Tracks the statements of {@code action} on their own, restoring the enclosing scope afterwards.
+     */
+    public static SqlRequestStats record(Runnable action) {
+        SqlRequestStats enclosing = CURRENT.get();
+        SqlRequestStats stats = start();
+        try {
+            action.run();
+        } finally {
+            if (enclosing == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(enclosing);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * SQL issued at least {@code times} times, with the number of executions, most frequent first.
+     */
+    public Map<String, Integer> getRepeatedStatements(int times) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executionsBySql.entrySet().stream()
+                .filter(entry -> entry.getValue() >= times)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+
+    static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    static void statementIssued(String sql) {
+        SqlRequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.executionsBySql.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    static void rowsRead(long count) {
+        SqlRequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.rows += count;
+        }
+    }
+
+    void rowRead() {
+        rows++;
+    }
+}
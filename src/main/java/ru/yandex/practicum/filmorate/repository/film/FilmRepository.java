@@ -1,22 +1,69 @@
 package ru.yandex.practicum.filmorate.repository.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface FilmRepository {
+    /**
+     * Inserts the film with its genres and returns it with the generated id and its MPA rating and genres in full.
+     */
     Film addFilm(Film film);
 
+    /**
+     * Inserts the films with their genres and sets the generated ids on them.
+     */
+    void addFilms(List<Film> films);
+
+    /**
+     * Updates the film with its genres and returns it with its MPA rating and genres in full.
+     */
     Film updateFilm(Film film);
 
     Film getFilmById(Long id);
 
+    boolean existsById(Long id);
+
+    Set<Long> findExistingIds(Collection<Long> ids);
+
     Collection<Film> getAllFilms();
 
+    Collection<Film> getFilmsPage(Long after, Integer limit);
+
+    void streamAllFilms(Consumer<Film> consumer);
+
+    Collection<Film> getFilmsByIds(Collection<Long> ids);
+
     Collection<Film> getPopularMovies(Long count);
 
-    void addLike(Long filmId, Long userId);
+    Collection<Film> getLikedFilms(Long userId);
+
+    boolean addLike(Long filmId, Long userId);
+
+    boolean removeLike(Long id, Long userId);
+
+    List<Boolean> addLikes(List<Like> likes);
+
+    List<Boolean> removeLikes(List<Like> likes);
+
+    /**
+     * Adds {@code likes} and removes {@code unlikes} in one transaction and returns the pairs that changed.
+     */
+    Set<Like> writeLikes(List<Like> likes, List<Like> unlikes);
+
+    Map<Long, Integer> getLikeCounts();
+
+    /**
+     * Returns the stored like counter of every film, films without likes included.
+     */
+    Map<Long, Integer> getLikeCounters();
 
-    void removeLike(Long id, Long userId);
+    void streamLikes(BiConsumer<Long, Long> consumer);
 
 }
@@ -2,15 +2,27 @@ package ru.yandex.practicum.filmorate.repository.film;
 
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.repository.LongHashSet;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+/**
+ * Thread-safe film storage. Like sets are unboxed {@link LongHashSet}s created once per film and never removed,
+ * so adding and removing likes needs no locking beyond the set itself; collection results are copies taken
+ * from weakly consistent iterators and are safe to use while other requests keep writing.
+ */
 @Component
 public class InMemoryFilmRepository implements FilmRepository {
-    private final Map<Long, Film> movies = new HashMap<>();
-    private final Map<Long, Set<Long>> movieLikes = new HashMap<>();
-    private long idCounter = 0L;
+    private final ConcurrentMap<Long, Film> movies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, LongHashSet> movieLikes = new ConcurrentHashMap<>();
+    private final AtomicLong idCounter = new AtomicLong();
 
     @Override
     public Film addFilm(Film film) {
@@ -20,6 +32,11 @@ public class InMemoryFilmRepository implements FilmRepository {
         return film;
     }
 
+    @Override
+    public void addFilms(List<Film> films) {
+        films.forEach(this::addFilm);
+    }
+
     @Override
     public Film updateFilm(Film film) {
         movies.put(film.getId(), film);
@@ -31,39 +48,137 @@ public class InMemoryFilmRepository implements FilmRepository {
         return movies.get(id);
     }
 
+    @Override
+    public boolean existsById(Long id) {
+        return movies.containsKey(id);
+    }
+
+    @Override
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        return ids.stream()
+                .filter(movies::containsKey)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns a weakly consistent copy: films added or updated while it is taken may or may not be in it, but every
+     * film present for the whole call is, once.
+     */
     @Override
     public Collection<Film> getAllFilms() {
-        return movies.values();
+        return List.copyOf(movies.values());
+    }
+
+    @Override
+    public Collection<Film> getFilmsPage(Long after, Integer limit) {
+        long afterId = after == null ? 0L : after;
+        return movies.values().stream()
+                .filter(film -> film.getId() > afterId)
+                .sorted(Comparator.comparing(Film::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamAllFilms(Consumer<Film> consumer) {
+        movies.values().forEach(consumer);
+    }
+
+    @Override
+    public Collection<Film> getFilmsByIds(Collection<Long> ids) {
+        return ids.stream()
+                .map(movies::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     @Override
     public Collection<Film> getPopularMovies(Long count) {
-        return movies.keySet().stream()
-                .map(film -> new AbstractMap.SimpleEntry<>(film,
-                        movieLikes.getOrDefault(film, Collections.emptySet()).size()))
-                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed())
+        Map<Long, Integer> likeCounts = getLikeCounts();
+        return movies.values().stream()
+                .sorted(Comparator.comparing((Film film) -> likeCounts.getOrDefault(film.getId(), 0)).reversed()
+                        .thenComparing(Film::getId))
                 .limit(count)
-                .map(entry -> movies.get(entry.getKey()))
                 .collect(Collectors.toList());
     }
 
     @Override
-    public void addLike(Long filmId, Long userId) {
-        movieLikes.computeIfAbsent(filmId, k -> new HashSet<>()).add(userId);
+    public boolean addLike(Long filmId, Long userId) {
+        return movieLikes.computeIfAbsent(filmId, k -> new LongHashSet()).add(userId);
     }
 
     @Override
-    public void removeLike(Long filmId, Long userId) {
-        Set<Long> likes = movieLikes.get(filmId);
-        if (likes != null) {
-            likes.remove(userId);
-            if (likes.isEmpty()) {
-                movieLikes.remove(filmId);
+    public boolean removeLike(Long filmId, Long userId) {
+        LongHashSet likes = movieLikes.get(filmId);
+        return likes != null && likes.remove(userId);
+    }
+
+    @Override
+    public Collection<Film> getLikedFilms(Long userId) {
+        return movieLikes.entrySet().stream()
+                .filter(entry -> entry.getValue().contains(userId))
+                .map(entry -> movies.get(entry.getKey()))
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(Film::getId))
+                .toList();
+    }
+
+    @Override
+    public List<Boolean> addLikes(List<Like> likes) {
+        return likes.stream()
+                .map(like -> addLike(like.getFilmId(), like.getUserId()))
+                .toList();
+    }
+
+    @Override
+    public List<Boolean> removeLikes(List<Like> likes) {
+        return likes.stream()
+                .map(like -> removeLike(like.getFilmId(), like.getUserId()))
+                .toList();
+    }
+
+    @Override
+    public Set<Like> writeLikes(List<Like> likes, List<Like> unlikes) {
+        Set<Like> changed = new HashSet<>();
+        likes.stream().filter(like -> addLike(like.getFilmId(), like.getUserId())).forEach(changed::add);
+        unlikes.stream().filter(like -> removeLike(like.getFilmId(), like.getUserId())).forEach(changed::add);
+        return changed;
+    }
+
+    @Override
+    public Map<Long, Integer> getLikeCounts() {
+        Map<Long, Integer> likeCounts = new HashMap<>();
+        movieLikes.forEach((filmId, likes) -> {
+            int count = likes.size();
+            if (count > 0) {
+                likeCounts.put(filmId, count);
             }
-        }
+        });
+        return likeCounts;
+    }
+
+    @Override
+    public Map<Long, Integer> getLikeCounters() {
+        Map<Long, Integer> likeCounters = new HashMap<>();
+        movies.keySet().forEach(filmId -> {
+            LongHashSet likes = movieLikes.get(filmId);
+            likeCounters.put(filmId, likes == null ? 0 : likes.size());
+        });
+        return likeCounters;
+    }
+
+    @Override
+    public void streamLikes(BiConsumer<Long, Long> consumer) {
+        movieLikes.forEach((filmId, likes) -> likes.forEach(userId -> consumer.accept(filmId, userId)));
+    }
+
+    public long getLikeMemoryFootprint() {
+        return movieLikes.values().stream()
+                .mapToLong(LongHashSet::memoryFootprint)
+                .sum();
     }
 
     private long getNextId() {
-        return ++idCounter;
+        return idCounter.incrementAndGet();
     }
 }
@@ -1,40 +1,64 @@
 package ru.yandex.practicum.filmorate.repository.film;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.jdbc.core.RowMapper;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.repository.genre.GenreRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.MpaRepository;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Repository
 @Qualifier("jdbcFilmRepository")
-@RequiredArgsConstructor
 public class JdbcFilmRepository implements FilmRepository {
-    private final NamedParameterJdbcOperations jdbc;
+    private static final int GENRE_BATCH_SIZE = 1000;
+    private static final int FILM_BATCH_SIZE = 1000;
+    // public so that tests can check its plan uses idx_likes_user_film
+    public static final String LIKED_FILMS_SQL =
+            "SELECT f.film_id, f.name, f.description, f.release_date, f.duration, f.mpa_id " +
+            "FROM likes l " +
+            "JOIN films f ON f.film_id = l.film_id " +
+            "WHERE l.user_id = :userId " +
+            "ORDER BY f.film_id";
 
-    private final RowMapper<Film> filmRowMapper = (rs, rowNum) -> {
-        Film film = new Film();
-        film.setId(rs.getLong("film_id"));
-        film.setName(rs.getString("name"));
-        film.setDescription(rs.getString("description"));
-        film.setReleaseDate(rs.getDate("release_date").toLocalDate());
-        film.setDuration(rs.getInt("duration"));
-        film.setMpa(new Mpa(rs.getInt("mpa_id"), rs.getString("mpa_name")));
-        film.setGenres(loadGenres(rs.getLong("film_id")));
-        return film;
-    };
+    private final NamedParameterJdbcOperations jdbc;
+    private final MpaRepository mpaRepository;
+    private final GenreRepository genreRepository;
+
+    @Autowired
+    public JdbcFilmRepository(NamedParameterJdbcOperations jdbc,
+                              @Qualifier("cachedMpaRepository") MpaRepository mpaRepository,
+                              @Qualifier("cachedGenreRepository") GenreRepository genreRepository) {
+        this.jdbc = jdbc;
+        this.mpaRepository = mpaRepository;
+        this.genreRepository = genreRepository;
+    }
 
     @Override
     public Film addFilm(Film film) {
@@ -64,9 +88,48 @@ public class JdbcFilmRepository implements FilmRepository {
 
         jdbc.batchUpdate(insertFilmGenresSql, genreParams.toArray(new SqlParameterSource[0]));
 
+        hydrate(film);
         return film;
     }
 
+    @Override
+    @Transactional
+    public void addFilms(List<Film> films) {
+        if (films.isEmpty()) {
+            return;
+        }
+        String insertFilmSql = "INSERT INTO films (name, description, release_date, duration, mpa_id) " +
+                "VALUES (:name, :description, :releaseDate, :duration, :mpaId)";
+
+        SqlParameterSource[] filmParams = films.stream()
+                .map(film -> new MapSqlParameterSource()
+                        .addValue("name", film.getName())
+                        .addValue("description", film.getDescription())
+                        .addValue("releaseDate", film.getReleaseDate())
+                        .addValue("duration", film.getDuration())
+                        .addValue("mpaId", film.getMpa().getId())
+                )
+                .toArray(SqlParameterSource[]::new);
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbc.batchUpdate(insertFilmSql, filmParams, keyHolder, new String[]{"film_id"});
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < films.size(); i++) {
+            films.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+
+        String insertFilmGenresSql = "INSERT INTO film_genres (film_id, genre_id) VALUES (:filmId, :genreId)";
+        SqlParameterSource[] genreParams = films.stream()
+                .flatMap(film -> film.getGenres().stream()
+                        .map(genre -> new MapSqlParameterSource()
+                                .addValue("filmId", film.getId())
+                                .addValue("genreId", genre.getId())
+                        )
+                )
+                .toArray(SqlParameterSource[]::new);
+        jdbc.batchUpdate(insertFilmGenresSql, genreParams);
+    }
+
     @Override
     public Film updateFilm(Film film) {
         String updateFilmSql = "UPDATE films SET name = :name, description = :description, release_date = :releaseDate, duration = :duration, mpa_id = :mpaId " +
@@ -94,91 +157,376 @@ public class JdbcFilmRepository implements FilmRepository {
                 .toList();
         jdbc.batchUpdate(insertFilmGenresSql, genreParams.toArray(new SqlParameterSource[0]));
 
+        hydrate(film);
         return film;
     }
 
     @Override
     public Film getFilmById(Long id) {
-        String sql = "SELECT f.film_id, f.name, f.description, f.release_date, f.duration, f.mpa_id, m.name AS mpa_name " +
-                "FROM films f " +
-                "LEFT JOIN mpa m ON f.mpa_id = m.mpa_id " +
-                "WHERE f.film_id = :filmId";
+        String sql = "SELECT film_id, name, description, release_date, duration, mpa_id " +
+                "FROM films " +
+                "WHERE film_id = :filmId";
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("filmId", id);
+
+        Film film = jdbc.queryForObject(sql, params, this::mapFilm);
+        loadGenres(List.of(film));
+        return film;
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        String sql = "SELECT 1 FROM films WHERE film_id = :filmId LIMIT 1";
 
         MapSqlParameterSource params = new MapSqlParameterSource()
                 .addValue("filmId", id);
 
-        return jdbc.queryForObject(sql, params, filmRowMapper);
+        return !jdbc.queryForList(sql, params, Integer.class).isEmpty();
+    }
+
+    @Override
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        String sql = "SELECT film_id FROM films WHERE film_id IN (:filmIds)";
+
+        List<Long> idList = List.copyOf(ids);
+        Set<Long> existingIds = new HashSet<>();
+        for (int from = 0; from < idList.size(); from += FILM_BATCH_SIZE) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("filmIds", idList.subList(from, Math.min(from + FILM_BATCH_SIZE, idList.size())));
+
+            existingIds.addAll(jdbc.queryForList(sql, params, Long.class));
+        }
+        return existingIds;
     }
 
     @Override
     public Collection<Film> getAllFilms() {
-        String sql = "SELECT f.film_id, f.name, f.description, f.release_date, f.duration, f.mpa_id, m.name AS mpa_name " +
-                "FROM films f " +
-                "LEFT JOIN mpa m ON f.mpa_id = m.mpa_id";
+        String sql = "SELECT film_id, name, description, release_date, duration, mpa_id " +
+                "FROM films";
 
-        return jdbc.query(sql, filmRowMapper);
+        List<Film> films = jdbc.query(sql, this::mapFilm);
+        loadAllGenres(films);
+        return films;
+    }
+
+    @Override
+    public Collection<Film> getFilmsPage(Long after, Integer limit) {
+        String sql = "SELECT film_id, name, description, release_date, duration, mpa_id " +
+                "FROM films " +
+                "WHERE film_id > :after " +
+                "ORDER BY film_id " +
+                "LIMIT :limit";
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("after", after == null ? 0L : after)
+                .addValue("limit", limit);
+
+        List<Film> films = jdbc.query(sql, params, this::mapFilm);
+        loadGenres(films);
+        return films;
+    }
+
+    @Override
+    public void streamAllFilms(Consumer<Film> consumer) {
+        String sql = """
+                SELECT f.film_id, f.name, f.description, f.release_date, f.duration, f.mpa_id, fg.genre_id
+                FROM films f
+                LEFT JOIN film_genres fg ON f.film_id = fg.film_id
+                ORDER BY f.film_id, fg.genre_id
+                """;
+
+        FilmStreamHandler handler = new FilmStreamHandler(consumer);
+        jdbc.query(sql, handler);
+        handler.flush();
+    }
+
+    @Override
+    public Collection<Film> getFilmsByIds(Collection<Long> ids) {
+        String sql = "SELECT film_id, name, description, release_date, duration, mpa_id " +
+                "FROM films " +
+                "WHERE film_id IN (:filmIds)";
+
+        List<Long> idList = List.copyOf(ids);
+        List<Film> films = new ArrayList<>();
+        for (int from = 0; from < idList.size(); from += FILM_BATCH_SIZE) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("filmIds", idList.subList(from, Math.min(from + FILM_BATCH_SIZE, idList.size())));
+
+            films.addAll(jdbc.query(sql, params, this::mapFilm));
+        }
+        loadGenres(films);
+        return films;
+    }
+
+    @Override
+    public Collection<Film> getLikedFilms(Long userId) {
+        List<Film> films = jdbc.query(LIKED_FILMS_SQL, new MapSqlParameterSource("userId", userId), this::mapFilm);
+        loadGenres(films);
+        return films;
     }
 
     @Override
     public Collection<Film> getPopularMovies(Long count) {
+        // the limit applies to films, not to joined rows, so the top films are picked before the genre join
         String sql = """
-                SELECT gf.count, f.film_id, f.name, f.description, f.release_date, f.duration,
-                       f.mpa_id, m.name AS mpa_name,
-                       g.genre_id, g.name AS genre_name
-                FROM (
-                    SELECT film_id, COUNT(user_id) AS count
-                    FROM likes
-                    GROUP BY film_id
-                    ORDER BY count DESC
-                    LIMIT :count
-                ) gf
-                JOIN films f ON gf.film_id = f.film_id
+                SELECT f.film_id, f.name, f.description, f.release_date, f.duration, f.mpa_id, fg.genre_id
+                FROM (SELECT film_id, name, description, release_date, duration, mpa_id, like_count
+                      FROM films
+                      ORDER BY like_count DESC, film_id
+                      LIMIT :count) f
                 LEFT JOIN film_genres fg ON f.film_id = fg.film_id
-                LEFT JOIN genres g ON fg.genre_id = g.genre_id
-                LEFT JOIN mpa m ON f.mpa_id = m.mpa_id
+                ORDER BY f.like_count DESC, f.film_id, fg.genre_id
                 """;
 
         MapSqlParameterSource params = new MapSqlParameterSource()
                 .addValue("count", count);
 
-        List<Film> films = jdbc.query(sql, params, filmRowMapper);
-
-        return new LinkedHashSet<>(films);
+        List<Film> films = new ArrayList<>();
+        FilmStreamHandler handler = new FilmStreamHandler(films::add);
+        jdbc.query(sql, params, handler);
+        handler.flush();
+        return films;
     }
 
     @Override
-    public void addLike(Long filmId, Long userId) {
-        String sql = "MERGE INTO likes (film_id, user_id) VALUES (:filmId, :userId)";
+    @Transactional
+    public boolean addLike(Long filmId, Long userId) {
+        String insertLikeSql = "INSERT INTO likes (film_id, user_id) " +
+                "SELECT :filmId, :userId WHERE NOT EXISTS " +
+                "(SELECT 1 FROM likes WHERE film_id = :filmId AND user_id = :userId)";
 
         MapSqlParameterSource params = new MapSqlParameterSource()
                 .addValue("filmId", filmId)
                 .addValue("userId", userId);
 
-        jdbc.update(sql, params);
+        try {
+            if (jdbc.update(insertLikeSql, params) == 0) {
+                return false;
+            }
+        } catch (DuplicateKeyException e) {
+            // a concurrent request has inserted the same like, the counter is its responsibility
+            return false;
+        }
+        updateLikeCount(filmId, 1);
+        return true;
     }
 
     @Override
-    public void removeLike(Long filmId, Long userId) {
+    @Transactional
+    public boolean removeLike(Long filmId, Long userId) {
         String sql = "DELETE FROM likes WHERE film_id = :filmId AND user_id = :userId";
 
         MapSqlParameterSource params = new MapSqlParameterSource()
                 .addValue("filmId", filmId)
                 .addValue("userId", userId);
 
-        jdbc.update(sql, params);
+        if (jdbc.update(sql, params) == 0) {
+            return false;
+        }
+        updateLikeCount(filmId, -1);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public List<Boolean> addLikes(List<Like> likes) {
+        String insertLikeSql = "INSERT INTO likes (film_id, user_id) " +
+                "SELECT :filmId, :userId WHERE NOT EXISTS " +
+                "(SELECT 1 FROM likes WHERE film_id = :filmId AND user_id = :userId)";
+
+        return updateLikes(insertLikeSql, likes, 1);
+    }
+
+    @Override
+    @Transactional
+    public List<Boolean> removeLikes(List<Like> likes) {
+        String deleteLikeSql = "DELETE FROM likes WHERE film_id = :filmId AND user_id = :userId";
+
+        return updateLikes(deleteLikeSql, likes, -1);
     }
 
-    private LinkedHashSet<Genre> loadGenres(Long filmId) {
-        String sql = "SELECT g.genre_id, g.name FROM genres g " +
-                "INNER JOIN film_genres fg ON g.genre_id = fg.genre_id " +
-                "WHERE fg.film_id = :filmId ";
+    @Override
+    @Transactional
+    public Set<Like> writeLikes(List<Like> likes, List<Like> unlikes) {
+        Set<Like> changed = new HashSet<>();
+        List<Boolean> added = addLikes(likes);
+        for (int i = 0; i < likes.size(); i++) {
+            if (added.get(i)) {
+                changed.add(likes.get(i));
+            }
+        }
+        List<Boolean> removed = removeLikes(unlikes);
+        for (int i = 0; i < unlikes.size(); i++) {
+            if (removed.get(i)) {
+                changed.add(unlikes.get(i));
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public Map<Long, Integer> getLikeCounts() {
+        String sql = "SELECT film_id, COUNT(user_id) AS count FROM likes GROUP BY film_id";
+
+        Map<Long, Integer> likeCounts = new HashMap<>();
+        jdbc.query(sql, (ResultSet rs) -> {
+            likeCounts.put(rs.getLong("film_id"), rs.getInt("count"));
+        });
+        return likeCounts;
+    }
+
+    @Override
+    public Map<Long, Integer> getLikeCounters() {
+        String sql = "SELECT film_id, like_count FROM films";
+
+        Map<Long, Integer> likeCounters = new HashMap<>();
+        jdbc.query(sql, (ResultSet rs) -> {
+            likeCounters.put(rs.getLong("film_id"), rs.getInt("like_count"));
+        });
+        return likeCounters;
+    }
+
+    @Override
+    public void streamLikes(BiConsumer<Long, Long> consumer) {
+        String sql = "SELECT film_id, user_id FROM likes";
+
+        jdbc.query(sql, (ResultSet rs) -> consumer.accept(rs.getLong("film_id"), rs.getLong("user_id")));
+    }
+
+    private List<Boolean> updateLikes(String sql, List<Like> likes, int delta) {
+        if (likes.isEmpty()) {
+            return List.of();
+        }
+
+        SqlParameterSource[] likeParams = likes.stream()
+                .map(like -> new MapSqlParameterSource()
+                        .addValue("filmId", like.getFilmId())
+                        .addValue("userId", like.getUserId()))
+                .toArray(SqlParameterSource[]::new);
+        int[] updated = jdbc.batchUpdate(sql, likeParams);
+
+        List<Boolean> changed = new ArrayList<>(likes.size());
+        Map<Long, Integer> deltas = new HashMap<>();
+        for (int i = 0; i < likes.size(); i++) {
+            changed.add(updated[i] > 0);
+            if (updated[i] > 0) {
+                deltas.merge(likes.get(i).getFilmId(), delta, Integer::sum);
+            }
+        }
+
+        String updateCountSql = "UPDATE films SET like_count = like_count + :delta WHERE film_id = :filmId";
+        SqlParameterSource[] countParams = deltas.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("filmId", entry.getKey())
+                        .addValue("delta", entry.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        jdbc.batchUpdate(updateCountSql, countParams);
+
+        return changed;
+    }
+
+    private void updateLikeCount(Long filmId, int delta) {
+        String sql = "UPDATE films SET like_count = like_count + :delta WHERE film_id = :filmId";
 
         MapSqlParameterSource params = new MapSqlParameterSource()
-                .addValue("filmId", filmId);
+                .addValue("filmId", filmId)
+                .addValue("delta", delta);
 
-        return new LinkedHashSet<>(jdbc.query(sql, params, (rs, rowNum) ->
-                new Genre(rs.getInt("genre_id"), rs.getString("name"))
-        ));
+        jdbc.update(sql, params);
+    }
+
+    private void loadAllGenres(List<Film> films) {
+        String sql = "SELECT film_id, genre_id FROM film_genres ORDER BY film_id, genre_id";
+
+        Map<Long, Film> filmsById = films.stream()
+                .collect(Collectors.toMap(Film::getId, Function.identity()));
+
+        jdbc.query(sql, (ResultSet rs) -> addGenre(filmsById, rs));
+    }
+
+    private void loadGenres(List<Film> films) {
+        if (films.isEmpty()) {
+            return;
+        }
+
+        String sql = "SELECT film_id, genre_id FROM film_genres " +
+                "WHERE film_id IN (:filmIds) " +
+                "ORDER BY film_id, genre_id";
+
+        Map<Long, Film> filmsById = films.stream()
+                .collect(Collectors.toMap(Film::getId, Function.identity(), (first, second) -> first));
+        List<Long> filmIds = List.copyOf(filmsById.keySet());
+
+        for (int from = 0; from < filmIds.size(); from += GENRE_BATCH_SIZE) {
+            List<Long> batch = filmIds.subList(from, Math.min(from + GENRE_BATCH_SIZE, filmIds.size()));
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("filmIds", batch);
+
+            jdbc.query(sql, params, (ResultSet rs) -> addGenre(filmsById, rs));
+        }
+    }
+
+    private void addGenre(Map<Long, Film> filmsById, ResultSet rs) throws SQLException {
+        Film film = filmsById.get(rs.getLong("film_id"));
+        if (film != null) {
+            film.getGenres().add(genreRepository.getGenreById(rs.getInt("genre_id")));
+        }
     }
-}
 
+    /**
+     * Replaces the MPA rating and genres of a written film, given by id, with the cached ones, in the order
+     * {@link #getFilmById} returns them.
+     */
+    private void hydrate(Film film) {
+        film.setMpa(mpaRepository.getMpaById(film.getMpa().getId()));
+        film.setGenres(film.getGenres().stream()
+                .map(Genre::getId)
+                .distinct()
+                .sorted()
+                .map(genreRepository::getGenreById)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+
+    private Film mapFilm(ResultSet rs, int rowNum) throws SQLException {
+        Film film = new Film();
+        film.setId(rs.getLong("film_id"));
+        film.setName(rs.getString("name"));
+        film.setDescription(rs.getString("description"));
+        film.setReleaseDate(rs.getDate("release_date").toLocalDate());
+        film.setDuration(rs.getInt("duration"));
+        int mpaId = rs.getInt("mpa_id");
+        film.setMpa(rs.wasNull() ? null : mpaRepository.getMpaById(mpaId));
+        return film;
+    }
+
+    /**
+     * Builds films with their genres from rows of a film/genre join ordered so that the rows of one film are adjacent.
+     */
+    @RequiredArgsConstructor
+    private class FilmStreamHandler implements RowCallbackHandler {
+        private final Consumer<Film> consumer;
+        private Film current;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long filmId = rs.getLong("film_id");
+            if (current == null || current.getId() != filmId) {
+                flush();
+                current = mapFilm(rs, rs.getRow());
+            }
+
+            int genreId = rs.getInt("genre_id");
+            if (!rs.wasNull()) {
+                current.getGenres().add(genreRepository.getGenreById(genreId));
+            }
+        }
+
+        private void flush() {
+            if (current != null) {
+                consumer.accept(current);
+                current = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package ru.yandex.practicum.filmorate.repository.film;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.LikeOperation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Optional write-behind mode for likes ({@code filmorate.likes.write-behind.enabled}). Operations are coalesced per
+ * film/user pair, the last one winning, and written in one transaction with {@link FilmRepository#writeLikes} once
+ * {@code batch-size} pairs are pending or every {@code flush-interval}. When {@code capacity} pairs are pending the
+ * caller waits for a flush and, if none completes in time, flushes itself. A batch that fails goes back to the buffer,
+ * behind any newer operation on the same pair, and is retried after a backoff doubling from {@code flush-interval};
+ * after {@code max-attempts} failed flushes in a row the batch is dropped. Pending operations are flushed on shutdown,
+ * and inline by the caller afterwards. Committed changes are reported to the {@link ChangeListener}; the write guard
+ * runs around each write and its reports. The flusher runs on a virtual thread when
+ * {@code spring.threads.virtual.enabled} is set.
+ */
+@Slf4j
+@Component
+public class LikeWriteBuffer {
+    private final FilmRepository filmRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int capacity;
+    private final Duration flushInterval;
+    private final int maxAttempts;
+    private final boolean virtualThreads;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Lock flushLock = new ReentrantLock();
+    private Map<Like, LikeOperation.Action> pending = new LinkedHashMap<>();
+    private boolean flushRequested;
+    private int failedAttempts;
+    private long retryAtNanos;
+    private volatile ScheduledExecutorService flusher;
+    private volatile ChangeListener listener = (like, added) -> {
+    };
+    private volatile Consumer<Runnable> writeGuard = Runnable::run;
+
+    private final AtomicLong flushedOperations = new AtomicLong();
+    private final AtomicLong failedOperations = new AtomicLong();
+    private volatile long lastFlushNanos;
+
+    @Autowired
+    public LikeWriteBuffer(@Qualifier("jdbcFilmRepository") FilmRepository filmRepository,
+                           @Value("${filmorate.likes.write-behind.enabled:false}") boolean enabled,
+                           @Value("${filmorate.likes.write-behind.batch-size:500}") int batchSize,
+                           @Value("${filmorate.likes.write-behind.capacity:10000}") int capacity,
+                           @Value("${filmorate.likes.write-behind.flush-interval:100ms}") Duration flushInterval,
+                           @Value("${filmorate.likes.write-behind.max-attempts:5}") int maxAttempts,
+                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.filmRepository = filmRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.flushInterval = flushInterval;
+        this.maxAttempts = maxAttempts;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("like-write-behind").factory()
+                : Thread.ofPlatform().name("like-write-behind").daemon().factory();
+        flusher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        flusher.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        log.info("Like write-behind enabled: batch size {}, capacity {}, flush interval {}",
+                batchSize, capacity, flushInterval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        flush(true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setListener(ChangeListener listener) {
+        this.listener = listener;
+    }
+
+    public void setWriteGuard(Consumer<Runnable> writeGuard) {
+        this.writeGuard = writeGuard;
+    }
+
+    public void enqueue(Like like, LikeOperation.Action action) {
+        while (!offer(like, action)) {
+            flush();
+        }
+        // nothing flushes in the background after stop()
+        ScheduledExecutorService executor = flusher;
+        if (executor != null && executor.isShutdown()) {
+            flush(true);
+        }
+    }
+
+    public void flush() {
+        flush(false);
+    }
+
+    private void flush(boolean lastAttempt) {
+        flushLock.lock();
+        try {
+            if (!lastAttempt && failedAttempts > 0 && System.nanoTime() - retryAtNanos < 0) {
+                return;
+            }
+            Map<Like, LikeOperation.Action> batch;
+            lock.lock();
+            try {
+                flushRequested = false;
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (write(batch)) {
+                failedAttempts = 0;
+            } else {
+                retryOrDrop(batch, lastAttempt);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFlushedOperations() {
+        return flushedOperations.get();
+    }
+
+    public long getFailedOperations() {
+        return failedOperations.get();
+    }
+
+    public Duration getLastFlushDuration() {
+        return Duration.ofNanos(lastFlushNanos);
+    }
+
+    /**
+     * Waits up to two flush intervals for room in the buffer; {@code false} tells the caller to flush itself.
+     */
+    private boolean offer(Like like, LikeOperation.Action action) {
+        lock.lock();
+        try {
+            long waitNanos = flushInterval.multipliedBy(2).toNanos();
+            while (pending.size() >= capacity && !pending.containsKey(like)) {
+                if (waitNanos <= 0) {
+                    return false;
+                }
+                waitNanos = notFull.awaitNanos(waitNanos);
+            }
+            pending.remove(like);
+            pending.put(like, action);
+            ScheduledExecutorService executor = flusher;
+            if (pending.size() >= batchSize && executor != null && !flushRequested) {
+                try {
+                    executor.execute(this::flush);
+                    flushRequested = true;
+                } catch (RejectedExecutionException e) {
+                    // stopped, enqueue() flushes inline
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the like buffer", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean write(Map<Like, LikeOperation.Action> batch) {
+        List<Like> likes = new ArrayList<>();
+        List<Like> unlikes = new ArrayList<>();
+        batch.forEach((like, action) -> (action == LikeOperation.Action.UNLIKE ? unlikes : likes).add(like));
+
+        boolean[] written = new boolean[1];
+        try {
+            writeGuard.accept(() -> {
+                long start = System.nanoTime();
+                Set<Like> changed = filmRepository.writeLikes(likes, unlikes);
+                written[0] = true;
+                lastFlushNanos = System.nanoTime() - start;
+                flushedOperations.addAndGet(batch.size());
+                log.debug("Flushed {} likes and {} unlikes in {} ms", likes.size(), unlikes.size(),
+                        TimeUnit.NANOSECONDS.toMillis(lastFlushNanos));
+
+                likes.stream().filter(changed::contains).forEach(like -> listener.likeChanged(like, true));
+                unlikes.stream().filter(changed::contains).forEach(like -> listener.likeChanged(like, false));
+            });
+        } catch (RuntimeException e) {
+            if (written[0]) {
+                // committed, a retry would not report the changes again
+                log.error("Failed to report {} flushed like operations", batch.size(), e);
+                return true;
+            }
+            log.warn("Failed to flush {} like operations", batch.size(), e);
+            return false;
+        }
+        return true;
+    }
+
+    private void retryOrDrop(Map<Like, LikeOperation.Action> batch, boolean lastAttempt) {
+        failedAttempts++;
+        if (lastAttempt || failedAttempts >= maxAttempts) {
+            failedOperations.addAndGet(batch.size());
+            log.error("Dropped {} like operations after {} failed flushes", batch.size(), failedAttempts);
+            failedAttempts = 0;
+            return;
+        }
+        lock.lock();
+        try {
+            batch.forEach(pending::putIfAbsent);
+        } finally {
+            lock.unlock();
+        }
+        Duration backoff = flushInterval.multipliedBy(1L << Math.min(failedAttempts - 1, 10));
+        retryAtNanos = System.nanoTime() + backoff.toNanos();
+        log.warn("Retrying {} like operations in {} ms, attempt {} of {}", batch.size(), backoff.toMillis(),
+                failedAttempts + 1, maxAttempts);
+    }
+
+    @FunctionalInterface
+    public interface ChangeListener {
+        void likeChanged(Like like, boolean added);
+    }
+}
@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.repository.genre;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.repository.ContentDigest;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Repository
+@Qualifier("cachedGenreRepository")
+public class CachedGenreRepository implements GenreRepository {
+    private final GenreRepository genreRepository;
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public CachedGenreRepository(@Qualifier("jdbcGenreRepository") GenreRepository genreRepository) {
+        this.genreRepository = genreRepository;
+    }
+
+    @PostConstruct
+    public void refresh() {
+        List<Genre> genres = List.copyOf(genreRepository.getAllGenres());
+        Map<Integer, Genre> genresById = genres.stream()
+                .collect(Collectors.toUnmodifiableMap(Genre::getId, Function.identity()));
+        Map<Integer, String> digestsById = genres.stream()
+                .collect(Collectors.toUnmodifiableMap(Genre::getId, genre -> ContentDigest.of(describe(genre))));
+        String digest = ContentDigest.of(genres.stream().map(CachedGenreRepository::describe).toList());
+        snapshot = new Snapshot(genres, genresById, digest, digestsById);
+        log.info("Cached {} genres", genres.size());
+    }
+
+    @Override
+    public Collection<Genre> getAllGenres() {
+        return snapshot.genres();
+    }
+
+    @Override
+    public Genre getGenreById(Integer id) {
+        Genre genre = snapshot.genresById().get(id);
+        if (genre == null) {
+            throw new EmptyResultDataAccessException(1);
+        }
+        return genre;
+    }
+
+    @Override
+    public Set<Integer> getAllGenreIds() {
+        return snapshot.genresById().keySet();
+    }
+
+    /**
+     * Digest of every genre, for the ETag of the list; it changes only when a refresh brings in other content.
+     */
+    public String getDigest() {
+        return snapshot.digest();
+    }
+
+    public String getDigest(Integer id) {
+        String digest = snapshot.digestsById().get(id);
+        if (digest == null) {
+            throw new EmptyResultDataAccessException(1);
+        }
+        return digest;
+    }
+
+    // ids and names are the whole representation
+    private static String describe(Genre genre) {
+        return genre.getId() + ":" + genre.getName();
+    }
+
+    private record Snapshot(List<Genre> genres, Map<Integer, Genre> genresById, String digest,
+                            Map<Integer, String> digestsById) {
+    }
+}
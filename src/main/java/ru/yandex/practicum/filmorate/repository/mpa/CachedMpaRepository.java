@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.repository.mpa;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.repository.ContentDigest;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Repository
+@Qualifier("cachedMpaRepository")
+public class CachedMpaRepository implements MpaRepository {
+    private final MpaRepository mpaRepository;
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public CachedMpaRepository(@Qualifier("jdbcMpaRepository") MpaRepository mpaRepository) {
+        this.mpaRepository = mpaRepository;
+    }
+
+    @PostConstruct
+    public void refresh() {
+        List<Mpa> mpa = List.copyOf(mpaRepository.getAllMpa());
+        Map<Integer, Mpa> mpaById = mpa.stream()
+                .collect(Collectors.toUnmodifiableMap(Mpa::getId, Function.identity()));
+        Map<Integer, String> digestsById = mpa.stream()
+                .collect(Collectors.toUnmodifiableMap(Mpa::getId, rating -> ContentDigest.of(describe(rating))));
+        String digest = ContentDigest.of(mpa.stream().map(CachedMpaRepository::describe).toList());
+        snapshot = new Snapshot(mpa, mpaById, digest, digestsById);
+        log.info("Cached {} MPA ratings", mpa.size());
+    }
+
+    @Override
+    public Collection<Mpa> getAllMpa() {
+        return snapshot.mpa();
+    }
+
+    @Override
+    public Mpa getMpaById(Integer id) {
+        Mpa mpa = snapshot.mpaById().get(id);
+        if (mpa == null) {
+            throw new EmptyResultDataAccessException(1);
+        }
+        return mpa;
+    }
+
+    @Override
+    public Set<Integer> getAllMpaIds() {
+        return snapshot.mpaById().keySet();
+    }
+
+    /**
+     * Digest of every MPA rating, for the ETag of the list; it changes only when a refresh brings in other content.
+     */
+    public String getDigest() {
+        return snapshot.digest();
+    }
+
+    public String getDigest(Integer id) {
+        String digest = snapshot.digestsById().get(id);
+        if (digest == null) {
+            throw new EmptyResultDataAccessException(1);
+        }
+        return digest;
+    }
+
+    // ids and names are the whole representation
+    private static String describe(Mpa mpa) {
+        return mpa.getId() + ":" + mpa.getName();
+    }
+
+    private record Snapshot(List<Mpa> mpa, Map<Integer, Mpa> mpaById, String digest,
+                            Map<Integer, String> digestsById) {
+    }
+}
@@ -2,16 +2,37 @@ package ru.yandex.practicum.filmorate.repository.user;
 
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.LongHashSet;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+/**
+ * Thread-safe user storage. A friendship is stored in both users' unboxed {@link LongHashSet}s, so changes to the same pair of users
+ * are serialized by one of {@link #LOCK_STRIPES} locks chosen from the pair; unrelated pairs proceed in parallel.
+ * Users are stored without locking, so collection results are copies taken from weakly consistent iterators.
+ */
 @Component
 public class InMemoryUserRepository implements UserRepository {
-    private final Map<Long, User> users = new HashMap<>();
-    private final Map<Long, Set<Long>> friends = new HashMap<>();
-    long currentId = 0;
+    private static final int LOCK_STRIPES = 64;
 
+    private final ConcurrentMap<Long, User> users = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, LongHashSet> friends = new ConcurrentHashMap<>();
+    private final Lock[] friendshipLocks = new Lock[LOCK_STRIPES];
+    private final AtomicLong currentId = new AtomicLong();
+
+    public InMemoryUserRepository() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            friendshipLocks[i] = new ReentrantLock();
+        }
+    }
 
     @Override
     public User createUser(User user) {
@@ -22,6 +43,11 @@ public class InMemoryUserRepository implements UserRepository {
         return user;
     }
 
+    @Override
+    public void addUsers(List<User> users) {
+        users.forEach(this::createUser);
+    }
+
     @Override
     public User updateUser(User user) {
         users.put(user.getId(), user);
@@ -33,51 +59,156 @@ public class InMemoryUserRepository implements UserRepository {
         return users.get(id);
     }
 
+    @Override
+    public boolean existsById(Long id) {
+        return users.containsKey(id);
+    }
+
+
+    @Override
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        return ids.stream()
+                .filter(users::containsKey)
+                .collect(Collectors.toSet());
+    }
 
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        Set<String> wanted = new HashSet<>(emails);
+        return users.values().stream()
+                .map(User::getEmail)
+                .filter(wanted::contains)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Set<String> findExistingLogins(Collection<String> logins) {
+        Set<String> wanted = new HashSet<>(logins);
+        return users.values().stream()
+                .map(User::getLogin)
+                .filter(wanted::contains)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns a weakly consistent copy: users created or updated while it is taken may or may not be in it, but every
+     * user present for the whole call is, once.
+     */
     @Override
     public Collection<User> getAllUsers() {
-        return users.values();
+        return List.copyOf(users.values());
+    }
+
+    @Override
+    public Collection<User> getUsersPage(Long after, Integer limit) {
+        long afterId = after == null ? 0L : after;
+        return users.values().stream()
+                .filter(user -> user.getId() > afterId)
+                .sorted(Comparator.comparing(User::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamAllUsers(Consumer<User> consumer) {
+        users.values().forEach(consumer);
+    }
+
+    @Override
+    public Collection<User> getUsersByIds(Collection<Long> ids) {
+        return ids.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     @Override
     public Set<User> getAllFriends(Long userId) {
-        Set<Long> friendIds = friends.get(userId);
+        LongHashSet friendIds = friends.get(userId);
         if (friendIds == null) {
             return Collections.emptySet();
         }
 
-        return friendIds.stream()
-                .map(users::get)
+        return Arrays.stream(friendIds.toArray())
+                .mapToObj(users::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toSet());
     }
 
     @Override
-    public Set<User> getCommonFriends(Long userId1, Long userId2) {
-        Set<Long> friends1 = friends.getOrDefault(userId1, Collections.emptySet());
-        Set<Long> friends2 = friends.getOrDefault(userId2, Collections.emptySet());
+    public List<User> getFollowers(Long userId) {
+        return friends.entrySet().stream()
+                .filter(entry -> entry.getValue().contains(userId))
+                .map(entry -> users.get(entry.getKey()))
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(User::getId))
+                .toList();
+    }
 
-        Set<Long> commonFriends = new HashSet<>(friends1);
-        commonFriends.retainAll(friends2);
+    @Override
+    public Set<User> getCommonFriends(Long userId1, Long userId2) {
+        LongHashSet friends1 = friends.get(userId1);
+        LongHashSet friends2 = friends.get(userId2);
+        if (friends1 == null || friends2 == null) {
+            return Collections.emptySet();
+        }
 
-        return commonFriends.stream()
-                .map(users::get)
+        LongHashSet smaller = friends1.size() <= friends2.size() ? friends1 : friends2;
+        LongHashSet larger = smaller == friends1 ? friends2 : friends1;
+        return Arrays.stream(smaller.toArray())
+                .filter(larger::contains)
+                .mapToObj(users::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toSet());
     }
 
 
     @Override
     public void addFriend(Long userId1, Long userId2) {
-        friends.computeIfAbsent(userId1, k -> new HashSet<>()).add(userId2);
-        friends.computeIfAbsent(userId2, k -> new HashSet<>()).add(userId1);
+        Lock lock = friendshipLock(userId1, userId2);
+        lock.lock();
+        try {
+            friendsOf(userId1).add(userId2);
+            friendsOf(userId2).add(userId1);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public void removeFriend(Long userId1, Long userId2) {
-        friends.computeIfAbsent(userId1, k -> new HashSet<>()).remove(userId2);
-        friends.computeIfAbsent(userId2, k -> new HashSet<>()).remove(userId1);
+        Lock lock = friendshipLock(userId1, userId2);
+        lock.lock();
+        try {
+            friendsOf(userId1).remove(userId2);
+            friendsOf(userId2).remove(userId1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void streamFriendships(BiConsumer<Long, Long> consumer) {
+        friends.forEach((userId, friendIds) -> friendIds.forEach(friendId -> consumer.accept(userId, friendId)));
+    }
+
+    public long getFriendMemoryFootprint() {
+        return friends.values().stream()
+                .mapToLong(LongHashSet::memoryFootprint)
+                .sum();
+    }
+
+    private LongHashSet friendsOf(Long userId) {
+        return friends.computeIfAbsent(userId, k -> new LongHashSet());
+    }
+
+    private Lock friendshipLock(Long userId1, Long userId2) {
+        long low = Math.min(userId1, userId2);
+        long high = Math.max(userId1, userId2);
+        return friendshipLocks[Math.floorMod(Long.hashCode(low * 31 + high), LOCK_STRIPES)];
     }
 
     private long getIdNext() {
-        return ++currentId;
+        return currentId.incrementAndGet();
     }
 }
@@ -5,20 +5,37 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.SortedLongSets;
 
+import java.sql.ResultSet;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
 
 @Repository
 @Qualifier("jdbcUserRepository")
 @RequiredArgsConstructor
 public class JdbcUserRepository implements UserRepository {
+    private static final int USER_BATCH_SIZE = 1000;
+    // public so that tests can check its plan uses idx_friends_friend_user
+    public static final String FOLLOWERS_SQL = "SELECT u.* FROM friends f " +
+            "JOIN users u ON u.user_id = f.user_id " +
+            "WHERE f.friend_id = :userId " +
+            "ORDER BY u.user_id";
+
     private final NamedParameterJdbcOperations jdbc;
 
     private final RowMapper<User> userRowMapper = (rs, rowNum) -> {
@@ -49,6 +66,32 @@ public class JdbcUserRepository implements UserRepository {
         return user;
     }
 
+    @Override
+    @Transactional
+    public void addUsers(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO users (email, login, user_name, birthday) " +
+                "VALUES (:email, :login, :name, :birthday)";
+
+        SqlParameterSource[] params = users.stream()
+                .map(user -> new MapSqlParameterSource()
+                        .addValue("email", user.getEmail())
+                        .addValue("login", user.getLogin())
+                        .addValue("name", user.getName())
+                        .addValue("birthday", user.getBirthday())
+                )
+                .toArray(SqlParameterSource[]::new);
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbc.batchUpdate(sql, params, keyHolder, new String[]{"user_id"});
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+
     @Override
     public User updateUser(User user) {
         String sql = "UPDATE users SET email = :email, login = :login, user_name = :name, birthday = :birthday " +
@@ -74,6 +117,52 @@ public class JdbcUserRepository implements UserRepository {
         return jdbc.queryForObject(sql, params, userRowMapper);
     }
 
+    @Override
+    public boolean existsById(Long id) {
+        String sql = "SELECT 1 FROM users WHERE user_id = :id LIMIT 1";
+
+        MapSqlParameterSource params = new MapSqlParameterSource().addValue("id", id);
+
+        return !jdbc.queryForList(sql, params, Integer.class).isEmpty();
+    }
+
+    @Override
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        String sql = "SELECT user_id FROM users WHERE user_id IN (:ids)";
+
+        List<Long> idList = List.copyOf(ids);
+        Set<Long> existingIds = new HashSet<>();
+        for (int from = 0; from < idList.size(); from += USER_BATCH_SIZE) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("ids", idList.subList(from, Math.min(from + USER_BATCH_SIZE, idList.size())));
+
+            existingIds.addAll(jdbc.queryForList(sql, params, Long.class));
+        }
+        return existingIds;
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        return findExistingValues("SELECT email FROM users WHERE email IN (:values)", emails);
+    }
+
+    @Override
+    public Set<String> findExistingLogins(Collection<String> logins) {
+        return findExistingValues("SELECT login FROM users WHERE login IN (:values)", logins);
+    }
+
+    private Set<String> findExistingValues(String sql, Collection<String> values) {
+        List<String> valueList = List.copyOf(values);
+        Set<String> existingValues = new HashSet<>();
+        for (int from = 0; from < valueList.size(); from += USER_BATCH_SIZE) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("values", valueList.subList(from, Math.min(from + USER_BATCH_SIZE, valueList.size())));
+
+            existingValues.addAll(jdbc.queryForList(sql, params, String.class));
+        }
+        return existingValues;
+    }
+
     @Override
     public Collection<User> getAllUsers() {
         String sql = "SELECT * FROM users";
@@ -81,6 +170,39 @@ public class JdbcUserRepository implements UserRepository {
         return jdbc.query(sql, userRowMapper);
     }
 
+    @Override
+    public Collection<User> getUsersPage(Long after, Integer limit) {
+        String sql = "SELECT * FROM users WHERE user_id > :after ORDER BY user_id LIMIT :limit";
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("after", after == null ? 0L : after)
+                .addValue("limit", limit);
+
+        return jdbc.query(sql, params, userRowMapper);
+    }
+
+    @Override
+    public void streamAllUsers(Consumer<User> consumer) {
+        String sql = "SELECT * FROM users ORDER BY user_id";
+
+        jdbc.query(sql, (ResultSet rs) -> consumer.accept(userRowMapper.mapRow(rs, rs.getRow())));
+    }
+
+    @Override
+    public Collection<User> getUsersByIds(Collection<Long> ids) {
+        String sql = "SELECT * FROM users WHERE user_id IN (:ids)";
+
+        List<Long> idList = List.copyOf(ids);
+        List<User> users = new ArrayList<>();
+        for (int from = 0; from < idList.size(); from += USER_BATCH_SIZE) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("ids", idList.subList(from, Math.min(from + USER_BATCH_SIZE, idList.size())));
+
+            users.addAll(jdbc.query(sql, params, userRowMapper));
+        }
+        return users;
+    }
+
     @Override
     public Set<User> getAllFriends(Long userId) {
         String sql = "SELECT u.* FROM users u " +
@@ -92,21 +214,36 @@ public class JdbcUserRepository implements UserRepository {
         return new HashSet<>(jdbc.query(sql, params, userRowMapper));
     }
 
+    @Override
+    public List<User> getFollowers(Long userId) {
+        return jdbc.query(FOLLOWERS_SQL, new MapSqlParameterSource("userId", userId), userRowMapper);
+    }
+
     @Override
     public Set<User> getCommonFriends(Long userId1, Long userId2) {
-        String sql = """
-                SELECT u.user_id, u.email, u.login, u.user_name, u.birthday
-                FROM friends f1
-                JOIN friends f2 ON f1.friend_id = f2.friend_id
-                JOIN users u ON f1.friend_id = u.user_id
-                WHERE f1.user_id = :userId1
-                  AND f2.user_id = :userId2
-                """;
+        String sql = "SELECT user_id, friend_id FROM friends " +
+                "WHERE user_id IN (:userId1, :userId2) " +
+                "ORDER BY user_id, friend_id";
+
         MapSqlParameterSource params = new MapSqlParameterSource()
                 .addValue("userId1", userId1)
                 .addValue("userId2", userId2);
 
-        return new HashSet<>(jdbc.query(sql, params, userRowMapper));
+        LongStream.Builder friends1 = LongStream.builder();
+        LongStream.Builder friends2 = LongStream.builder();
+        jdbc.query(sql, params, (ResultSet rs) -> {
+            long userId = rs.getLong("user_id");
+            long friendId = rs.getLong("friend_id");
+            if (userId == userId1) {
+                friends1.add(friendId);
+            }
+            if (userId == userId2) {
+                friends2.add(friendId);
+            }
+        });
+
+        long[] commonFriendIds = SortedLongSets.intersect(friends1.build().toArray(), friends2.build().toArray());
+        return new HashSet<>(getUsersByIds(LongStream.of(commonFriendIds).boxed().toList()));
     }
 
     @Override
@@ -130,4 +267,11 @@ public class JdbcUserRepository implements UserRepository {
 
         jdbc.update(sql, params);
     }
+
+    @Override
+    public void streamFriendships(BiConsumer<Long, Long> consumer) {
+        String sql = "SELECT user_id, friend_id FROM friends";
+
+        jdbc.query(sql, (ResultSet rs) -> consumer.accept(rs.getLong("user_id"), rs.getLong("friend_id")));
+    }
 }
@@ -3,23 +3,52 @@ package ru.yandex.practicum.filmorate.repository.user;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface UserRepository {
     User createUser(User user);
 
+    /**
+     * Inserts the users and sets the generated ids on them.
+     */
+    void addUsers(List<User> users);
+
     User updateUser(User user);
 
     User getUserById(Long id);
 
+    boolean existsById(Long id);
+
+    Set<Long> findExistingIds(Collection<Long> ids);
+
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    Set<String> findExistingLogins(Collection<String> logins);
+
     Collection<User> getAllUsers();
 
+    Collection<User> getUsersPage(Long after, Integer limit);
+
+    void streamAllUsers(Consumer<User> consumer);
+
+    Collection<User> getUsersByIds(Collection<Long> ids);
+
     Set<User> getAllFriends(Long userId);
 
     Set<User> getCommonFriends(Long userId1, Long userId2);
 
+    /**
+     * Users who have added {@code userId} as a friend, ordered by id.
+     */
+    List<User> getFollowers(Long userId);
+
     void addFriend(Long userId1, Long userId2);
 
     void removeFriend(Long userId1, Long userId2);
 
+    void streamFriendships(BiConsumer<Long, Long> consumer);
+
 }
@@ -0,0 +1,172 @@
+package ru.yandex.practicum.filmorate.service.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.repository.film.FilmRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Film ids ranked by like count in memory, seeded from the {@code like_count} column; callers read the films of the
+ * top ids from the repository, so the index holds no film data. Writers are serialized by {@code updateLock} and exclude readers
+ * only while the ranking is modified; {@link #rebuild()} holds {@code updateLock} while it reads the database,
+ * so no like is lost and readers keep using the previous state until the new one is swapped in. Like writes run
+ * through {@link #guardLikeWrite} from the database write to their {@link #adjustLikes} call, sharing the read side
+ * of {@code rebuildLock}; {@link #rebuild()} and {@link #verify()} take the write side, so they never read a like
+ * that is committed but not yet adjusted, and a like is counted once.
+ */
+@Slf4j
+@Component
+public class FilmPopularityIndex {
+    private static final Comparator<Rank> BY_POPULARITY = Comparator.comparingInt(Rank::likes).reversed()
+            .thenComparingLong(Rank::filmId);
+
+    private final FilmRepository filmRepository;
+    private final Lock updateLock = new ReentrantLock();
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private State state = new State();
+
+    @Autowired
+    public FilmPopularityIndex(@Qualifier("jdbcFilmRepository") FilmRepository filmRepository) {
+        this.filmRepository = filmRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        updateLock.lock();
+        try {
+            State rebuilt = new State();
+            filmRepository.getLikeCounters().forEach(rebuilt::put);
+
+            stateLock.writeLock().lock();
+            try {
+                state = rebuilt;
+            } finally {
+                stateLock.writeLock().unlock();
+            }
+            log.info("Popularity index built for {} films", rebuilt.entries.size());
+        } finally {
+            updateLock.unlock();
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    public Set<Long> verify() {
+        rebuildLock.writeLock().lock();
+        updateLock.lock();
+        try {
+            Map<Long, Integer> likeCounts = filmRepository.getLikeCounts();
+            Set<Long> mismatches = new TreeSet<>();
+            state.entries.forEach((filmId, likes) -> {
+                if (likes != likeCounts.getOrDefault(filmId, 0)) {
+                    mismatches.add(filmId);
+                }
+            });
+            likeCounts.keySet().stream()
+                    .filter(filmId -> !state.entries.containsKey(filmId))
+                    .forEach(mismatches::add);
+
+            if (!mismatches.isEmpty()) {
+                log.warn("Popularity index differs from the database for films: {}", mismatches);
+            }
+            return mismatches;
+        } finally {
+            updateLock.unlock();
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs {@code write}, which stores likes and reports the committed ones to {@link #adjustLikes}, without a
+     * rebuild or a verification reading the database in between.
+     */
+    public void guardLikeWrite(Runnable write) {
+        rebuildLock.readLock().lock();
+        try {
+            write.run();
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+
+    public void addFilm(Long filmId) {
+        update(current -> {
+            if (!current.entries.containsKey(filmId)) {
+                current.put(filmId, 0);
+            }
+        });
+    }
+
+    public void adjustLikes(Long filmId, int delta) {
+        update(current -> {
+            Integer likes = current.entries.get(filmId);
+            if (likes != null) {
+                current.put(filmId, likes + delta);
+            }
+        });
+    }
+
+    public boolean containsFilm(Long filmId) {
+        stateLock.readLock().lock();
+        try {
+            return state.entries.containsKey(filmId);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    public List<Long> getPopularFilmIds(long count) {
+        stateLock.readLock().lock();
+        try {
+            List<Long> popular = new ArrayList<>();
+            Iterator<Rank> ranks = state.ranking.iterator();
+            while (popular.size() < count && ranks.hasNext()) {
+                popular.add(ranks.next().filmId());
+            }
+            return popular;
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    private void update(Consumer<State> change) {
+        updateLock.lock();
+        try {
+            stateLock.writeLock().lock();
+            try {
+                change.accept(state);
+            } finally {
+                stateLock.writeLock().unlock();
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private record Rank(int likes, long filmId) {
+    }
+
+    private static class State {
+        private final Map<Long, Integer> entries = new HashMap<>();
+        private final NavigableSet<Rank> ranking = new TreeSet<>(BY_POPULARITY);
+
+        private void put(long filmId, int likes) {
+            Integer old = entries.put(filmId, likes);
+            if (old != null) {
+                ranking.remove(new Rank(old, filmId));
+            }
+            ranking.add(new Rank(likes, filmId));
+        }
+    }
+}
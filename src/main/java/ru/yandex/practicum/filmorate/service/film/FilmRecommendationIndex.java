@@ -0,0 +1,160 @@
+package ru.yandex.practicum.filmorate.service.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.repository.LongHashSet;
+import ru.yandex.practicum.filmorate.repository.LongIntHashMap;
+import ru.yandex.practicum.filmorate.repository.film.FilmRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The likes matrix held in memory in both directions for user-based collaborative filtering. A recommendation
+ * ranks other users by the number of films liked in common, keeps the {@link #SIMILAR_USERS} closest, and scores
+ * the films they liked that the user has not by the summed overlap of their likers. Every adjacency scan reads at
+ * most {@link #MAX_SCANNED_LIKES} entries, so the work per request is bounded whatever the size of the data set.
+ * Locking follows {@code FriendGraph}: updates share the read side of {@code rebuildLock}, {@link #rebuild()}
+ * takes the write side.
+ */
+@Slf4j
+@Component
+public class FilmRecommendationIndex {
+    private static final int MAX_SCANNED_LIKES = 1000;
+    private static final int SIMILAR_USERS = 50;
+
+    private static final Comparator<Score> WORST_FIRST = Comparator.comparingInt(Score::score)
+            .thenComparing(Comparator.comparingLong(Score::id).reversed());
+
+    private final FilmRepository filmRepository;
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile Likes likes = new Likes();
+
+    @Autowired
+    public FilmRecommendationIndex(@Qualifier("jdbcFilmRepository") FilmRepository filmRepository) {
+        this.filmRepository = filmRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            Likes rebuilt = new Likes();
+            filmRepository.streamLikes(rebuilt::add);
+            likes = rebuilt;
+            log.info("Recommendation index built for {} users and {} films",
+                    rebuilt.filmsByUser.size(), rebuilt.usersByFilm.size());
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    public void addLike(Long filmId, Long userId) {
+        rebuildLock.readLock().lock();
+        try {
+            likes.add(filmId, userId);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void removeLike(Long filmId, Long userId) {
+        rebuildLock.readLock().lock();
+        try {
+            likes.remove(filmId, userId);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of films the user has not liked, best first, ties broken by the lower id.
+     */
+    public List<Long> recommendFilms(Long userId, int count) {
+        Likes current = likes;
+        LongHashSet userFilms = current.filmsByUser.get(userId);
+        if (userFilms == null || count <= 0) {
+            return List.of();
+        }
+
+        LongIntHashMap overlap = new LongIntHashMap(MAX_SCANNED_LIKES);
+        for (long filmId : userFilms.toArray(MAX_SCANNED_LIKES)) {
+            LongHashSet likers = current.usersByFilm.get(filmId);
+            if (likers != null) {
+                for (long otherUserId : likers.toArray(MAX_SCANNED_LIKES)) {
+                    if (otherUserId != userId) {
+                        overlap.addTo(otherUserId, 1);
+                    }
+                }
+            }
+        }
+
+        LongIntHashMap filmScores = new LongIntHashMap(MAX_SCANNED_LIKES);
+        for (Score similarUser : top(overlap, SIMILAR_USERS)) {
+            LongHashSet similarUserFilms = current.filmsByUser.get(similarUser.id());
+            if (similarUserFilms != null) {
+                for (long filmId : similarUserFilms.toArray(MAX_SCANNED_LIKES)) {
+                    if (!userFilms.contains(filmId)) {
+                        filmScores.addTo(filmId, similarUser.score());
+                    }
+                }
+            }
+        }
+
+        return top(filmScores, count).stream()
+                .map(Score::id)
+                .toList();
+    }
+
+    private static List<Score> top(LongIntHashMap scores, int count) {
+        PriorityQueue<Score> top = new PriorityQueue<>(count + 1, WORST_FIRST);
+        scores.forEach((id, score) -> {
+            if (top.size() < count) {
+                top.add(new Score(id, score));
+                return;
+            }
+            Score worst = top.peek();
+            if (score > worst.score() || (score == worst.score() && id < worst.id())) {
+                top.poll();
+                top.add(new Score(id, score));
+            }
+        });
+
+        List<Score> result = new ArrayList<>(top);
+        result.sort(WORST_FIRST.reversed());
+        return result;
+    }
+
+    private record Score(long id, int score) {
+    }
+
+    private static class Likes {
+        private final ConcurrentMap<Long, LongHashSet> filmsByUser = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Long, LongHashSet> usersByFilm = new ConcurrentHashMap<>();
+
+        private void add(Long filmId, Long userId) {
+            filmsByUser.computeIfAbsent(userId, k -> new LongHashSet()).add(filmId);
+            usersByFilm.computeIfAbsent(filmId, k -> new LongHashSet()).add(userId);
+        }
+
+        private void remove(Long filmId, Long userId) {
+            LongHashSet films = filmsByUser.get(userId);
+            if (films != null) {
+                films.remove(filmId);
+            }
+            LongHashSet users = usersByFilm.get(filmId);
+            if (users != null) {
+                users.remove(userId);
+            }
+        }
+    }
+}
@@ -1,21 +1,44 @@
 package ru.yandex.practicum.filmorate.service.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportRecord;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.model.LikeOperation;
+import ru.yandex.practicum.filmorate.model.LikeResult;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface FilmService {
     Film addFilm(Film film);
 
+    ImportResult importFilms(Iterator<ImportRecord<Film>> records);
+
     Film updateFilm(Film film);
 
     Film getFilmById(Long id);
 
     Collection<Film> getAllFilms();
 
+    Collection<Film> getFilmsPage(Long after, Integer limit);
+
+    void streamAllFilms(Consumer<Film> consumer);
+
     Collection<Film> getPopularMovies(Long count);
 
+    String getFilmETag(Long id);
+
+    String getPopularFilmsETag();
+
     void addLike(Long filmId, Long userId);
 
     void removeLike(Long filmId, Long userId);
+
+    List<LikeResult> applyLikes(List<LikeOperation> operations);
+
+    List<Film> getRecommendations(Long userId, Integer count);
+
+    Collection<Film> getLikedFilms(Long userId);
 }
@@ -1,8 +1,14 @@
 package ru.yandex.practicum.filmorate.service.film;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.InvalidGenreException;
@@ -10,45 +16,122 @@ import ru.yandex.practicum.filmorate.exception.InvalidMpaException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.ImportError;
+import ru.yandex.practicum.filmorate.model.ImportRecord;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.LikeOperation;
+import ru.yandex.practicum.filmorate.model.LikeResult;
 import ru.yandex.practicum.filmorate.repository.film.FilmRepository;
+import ru.yandex.practicum.filmorate.repository.film.LikeWriteBuffer;
 import ru.yandex.practicum.filmorate.repository.genre.GenreRepository;
 import ru.yandex.practicum.filmorate.repository.mpa.MpaRepository;
 import ru.yandex.practicum.filmorate.repository.user.UserRepository;
+import ru.yandex.practicum.filmorate.validation.CreateGroup;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class FilmServiceImpl implements FilmService {
+    private static final int IMPORT_BATCH_SIZE = 1000;
 
     private final FilmRepository filmRepository;
     private final UserRepository userRepository;
     private final MpaRepository mpaRepository;
     private final GenreRepository genreRepository;
+    private final FilmPopularityIndex popularityIndex;
+    private final FilmRecommendationIndex recommendationIndex;
+    private final FilmVersions filmVersions;
+    private final LikeWriteBuffer likeWriteBuffer;
+    private final Validator validator;
 
     @Autowired
     public FilmServiceImpl(@Qualifier("jdbcFilmRepository") FilmRepository filmRepository,
                            @Qualifier("jdbcUserRepository") UserRepository userRepository,
-                           MpaRepository mpaRepository, GenreRepository genreRepository) {
+                           @Qualifier("cachedMpaRepository") MpaRepository mpaRepository,
+                           @Qualifier("cachedGenreRepository") GenreRepository genreRepository,
+                           FilmPopularityIndex popularityIndex,
+                           FilmRecommendationIndex recommendationIndex,
+                           FilmVersions filmVersions,
+                           LikeWriteBuffer likeWriteBuffer,
+                           Validator validator) {
         this.filmRepository = filmRepository;
         this.userRepository = userRepository;
         this.mpaRepository = mpaRepository;
         this.genreRepository = genreRepository;
+        this.popularityIndex = popularityIndex;
+        this.recommendationIndex = recommendationIndex;
+        this.filmVersions = filmVersions;
+        this.likeWriteBuffer = likeWriteBuffer;
+        this.validator = validator;
+    }
+
+    @PostConstruct
+    public void registerLikeListener() {
+        likeWriteBuffer.setListener(this::likeChanged);
+        likeWriteBuffer.setWriteGuard(popularityIndex::guardLikeWrite);
     }
 
     @Override
     public Film addFilm(Film film) {
-        log.info("Adding film with details: {}", film);
+        log.info("Adding film: {}", film.getName());
+        log.debug("Film details: {}", film);
 
         validateFilm(film.getMpa().getId(), film.getGenres());
         Film addedFilm = filmRepository.addFilm(film);
+        popularityIndex.addFilm(addedFilm.getId());
+        filmVersions.filmChanged(addedFilm.getId());
 
         log.info("Added film with id: {}", addedFilm.getId());
         return addedFilm;
     }
 
+    @Override
+    public ImportResult importFilms(Iterator<ImportRecord<Film>> records) {
+        log.info("Importing films");
+        Set<Integer> validMpaIds = mpaRepository.getAllMpaIds();
+        Set<Integer> validGenreIds = genreRepository.getAllGenreIds();
+
+        ImportResult result = new ImportResult();
+        List<ImportRecord<Film>> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        while (records.hasNext()) {
+            ImportRecord<Film> record = records.next();
+            if (record.isTerminal()) {
+                log.warn("Import stopped at record {}: {}", record.getRecord(), record.getError());
+                result.setTerminalError(new ImportError(record.getRecord(), record.getError()));
+                break;
+            }
+            String error = record.getError() != null
+                    ? record.getError()
+                    : validateImportedFilm(record.getValue(), validMpaIds, validGenreIds);
+            if (error != null) {
+                result.addError(record.getRecord(), error);
+                continue;
+            }
+            batch.add(record);
+            if (batch.size() == IMPORT_BATCH_SIZE) {
+                insertImportBatch(batch, result);
+                batch.clear();
+            }
+        }
+        insertImportBatch(batch, result);
+
+        log.info("Imported {} films, {} records failed", result.getImported(), result.getFailed());
+        return result;
+    }
+
     @Override
     public Film updateFilm(Film film) {
         Long id = film.getId();
@@ -57,6 +140,7 @@ public class FilmServiceImpl implements FilmService {
         checkFilmExists(id);
         validateFilm(film.getMpa().getId(), film.getGenres());
         Film updatedFilm = filmRepository.updateFilm(film);
+        filmVersions.filmChanged(id);
 
         log.info("Updated film with id: {}", id);
         return updatedFilm;
@@ -65,8 +149,7 @@ public class FilmServiceImpl implements FilmService {
     @Override
     public Film getFilmById(Long id) {
         log.info("Fetching film by id: {}", id);
-        checkFilmExists(id);
-        Film film = filmRepository.getFilmById(id);
+        Film film = findFilm(id);
         log.info("Returning film with id: {}", id);
         return film;
     }
@@ -79,50 +162,288 @@ public class FilmServiceImpl implements FilmService {
         return films;
     }
 
+    @Override
+    public Collection<Film> getFilmsPage(Long after, Integer limit) {
+        log.info("Fetching up to {} films after id: {}", limit, after);
+        Collection<Film> films = filmRepository.getFilmsPage(after, limit);
+        log.info("Returning {} films", films.size());
+        return films;
+    }
+
+    @Override
+    public void streamAllFilms(Consumer<Film> consumer) {
+        log.info("Streaming all films");
+        filmRepository.streamAllFilms(consumer);
+    }
+
     @Override
     public Collection<Film> getPopularMovies(Long count) {
         log.info("Fetching top {} popular films", count);
-        Collection<Film> popularFilms = filmRepository.getPopularMovies(count);
+        List<Long> popularIds = popularityIndex.getPopularFilmIds(count);
+
+        Map<Long, Film> filmsById = filmRepository.getFilmsByIds(popularIds).stream()
+                .collect(Collectors.toMap(Film::getId, Function.identity()));
+        List<Film> popularFilms = popularIds.stream()
+                .map(filmsById::get)
+                .filter(Objects::nonNull)
+                .toList();
         log.info("Returning {} popular films", popularFilms.size());
         return popularFilms;
     }
 
+    @Override
+    public String getFilmETag(Long id) {
+        // every film is in the popularity index, so only an unknown id is looked up in the database
+        if (!popularityIndex.containsFilm(id)) {
+            checkFilmExists(id);
+        }
+        return filmVersions.getFilmETag(id);
+    }
+
+    @Override
+    public String getPopularFilmsETag() {
+        return filmVersions.getPopularETag();
+    }
+
     @Override
     public void addLike(Long filmId, Long userId) {
         log.info("Adding like from user {} to film {}", userId, filmId);
-        checkFilmExists(filmId);
-        checkUserExists(userId);
-        filmRepository.addLike(filmId, userId);
+        if (likeWriteBuffer.isEnabled()) {
+            // the write is deferred, so a missing film or user can only be reported now
+            checkFilmExists(filmId);
+            checkUserExists(userId);
+            likeWriteBuffer.enqueue(new Like(filmId, userId), LikeOperation.Action.LIKE);
+        } else {
+            // the insert and the counter update are the only statements; the foreign keys reject a missing film or
+            // user, and only then is it looked up which one is missing
+            try {
+                popularityIndex.guardLikeWrite(() -> {
+                    if (filmRepository.addLike(filmId, userId)) {
+                        likeChanged(new Like(filmId, userId), true);
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                checkFilmExists(filmId);
+                checkUserExists(userId);
+                throw e;
+            }
+        }
         log.info("User {} liked film {}", userId, filmId);
     }
 
     @Override
     public void removeLike(Long filmId, Long userId) {
         log.info("Removing like from user {} to film {}", userId, filmId);
-        checkFilmExists(filmId);
-        checkUserExists(userId);
-        filmRepository.removeLike(filmId, userId);
+        if (likeWriteBuffer.isEnabled()) {
+            checkFilmExists(filmId);
+            checkUserExists(userId);
+            likeWriteBuffer.enqueue(new Like(filmId, userId), LikeOperation.Action.UNLIKE);
+        } else {
+            popularityIndex.guardLikeWrite(() -> {
+                if (filmRepository.removeLike(filmId, userId)) {
+                    likeChanged(new Like(filmId, userId), false);
+                } else {
+                    // nothing was deleted: either there was no such like or the film or user is missing
+                    checkFilmExists(filmId);
+                    checkUserExists(userId);
+                }
+            });
+        }
         log.info("User {} removed like from film {}", userId, filmId);
     }
 
-    private void checkFilmExists(Long filmId) {
+    @Override
+    public List<LikeResult> applyLikes(List<LikeOperation> operations) {
+        log.info("Applying a batch of {} like operations", operations.size());
+        // buffered single likes go first so that the batch is applied on top of them
+        if (likeWriteBuffer.isEnabled()) {
+            likeWriteBuffer.flush();
+        }
+        Set<Long> existingFilmIds = filmRepository.findExistingIds(
+                operations.stream().map(LikeOperation::getFilmId).collect(Collectors.toSet()));
+        Set<Long> existingUserIds = userRepository.findExistingIds(
+                operations.stream().map(LikeOperation::getUserId).collect(Collectors.toSet()));
+
+        // only the last operation on a film/user pair is applied, as if the batch were replayed in order
+        Map<Like, Integer> lastOperation = new HashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            LikeOperation operation = operations.get(i);
+            lastOperation.put(new Like(operation.getFilmId(), operation.getUserId()), i);
+        }
+
+        LikeResult.Status[] statuses = new LikeResult.Status[operations.size()];
+        List<Integer> likeIndexes = new ArrayList<>();
+        List<Integer> unlikeIndexes = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            LikeOperation operation = operations.get(i);
+            if (!existingFilmIds.contains(operation.getFilmId())) {
+                statuses[i] = LikeResult.Status.FILM_NOT_FOUND;
+            } else if (!existingUserIds.contains(operation.getUserId())) {
+                statuses[i] = LikeResult.Status.USER_NOT_FOUND;
+            } else if (lastOperation.get(new Like(operation.getFilmId(), operation.getUserId())) != i) {
+                statuses[i] = LikeResult.Status.SUPERSEDED;
+            } else if (operation.getAction() == LikeOperation.Action.UNLIKE) {
+                unlikeIndexes.add(i);
+            } else {
+                likeIndexes.add(i);
+            }
+        }
+
+        popularityIndex.guardLikeWrite(() -> {
+            List<Boolean> added = filmRepository.addLikes(toLikes(operations, likeIndexes));
+            for (int i = 0; i < likeIndexes.size(); i++) {
+                LikeOperation operation = operations.get(likeIndexes.get(i));
+                statuses[likeIndexes.get(i)] = added.get(i) ? LikeResult.Status.ADDED : LikeResult.Status.UNCHANGED;
+                if (added.get(i)) {
+                    likeChanged(new Like(operation.getFilmId(), operation.getUserId()), true);
+                }
+            }
+
+            List<Boolean> removed = filmRepository.removeLikes(toLikes(operations, unlikeIndexes));
+            for (int i = 0; i < unlikeIndexes.size(); i++) {
+                LikeOperation operation = operations.get(unlikeIndexes.get(i));
+                statuses[unlikeIndexes.get(i)] = removed.get(i)
+                        ? LikeResult.Status.REMOVED : LikeResult.Status.UNCHANGED;
+                if (removed.get(i)) {
+                    likeChanged(new Like(operation.getFilmId(), operation.getUserId()), false);
+                }
+            }
+        });
+
+        List<LikeResult> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            LikeOperation operation = operations.get(i);
+            results.add(new LikeResult(operation.getFilmId(), operation.getUserId(), operation.getAction(),
+                    statuses[i]));
+        }
+        log.info("Applied {} likes and {} unlikes", likeIndexes.size(), unlikeIndexes.size());
+        return results;
+    }
+
+    @Override
+    public List<Film> getRecommendations(Long userId, Integer count) {
+        log.info("Fetching up to {} film recommendations for user {}", count, userId);
+        checkUserExists(userId);
+        List<Long> recommendedIds = recommendationIndex.recommendFilms(userId, count);
+
+        Map<Long, Film> filmsById = filmRepository.getFilmsByIds(recommendedIds).stream()
+                .collect(Collectors.toMap(Film::getId, Function.identity()));
+        List<Film> recommendations = recommendedIds.stream()
+                .map(filmsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        log.info("Returning {} film recommendations for user {}", recommendations.size(), userId);
+        return recommendations;
+    }
+
+    @Override
+    public Collection<Film> getLikedFilms(Long userId) {
+        log.info("Fetching films liked by user {}", userId);
+        checkUserExists(userId);
+        Collection<Film> films = filmRepository.getLikedFilms(userId);
+        log.info("Returning {} films liked by user {}", films.size(), userId);
+        return films;
+    }
+
+    private void likeChanged(Like like, boolean added) {
+        if (added) {
+            popularityIndex.adjustLikes(like.getFilmId(), 1);
+            recommendationIndex.addLike(like.getFilmId(), like.getUserId());
+        } else {
+            popularityIndex.adjustLikes(like.getFilmId(), -1);
+            recommendationIndex.removeLike(like.getFilmId(), like.getUserId());
+        }
+        filmVersions.likesChanged();
+    }
+
+    private String validateImportedFilm(Film film, Set<Integer> validMpaIds, Set<Integer> validGenreIds) {
+        if (film == null) {
+            return "Film cannot be null";
+        }
+        Set<ConstraintViolation<Film>> violations = validator.validate(film, Default.class, CreateGroup.class);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (film.getMpa() == null || !validMpaIds.contains(film.getMpa().getId())) {
+            return "MPA rating with id " + (film.getMpa() == null ? null : film.getMpa().getId()) + " does not exist";
+        }
+        if (film.getGenres() == null) {
+            film.setGenres(new LinkedHashSet<>());
+        }
+        for (Genre genre : film.getGenres()) {
+            if (!validGenreIds.contains(genre.getId())) {
+                return "Genre with id " + genre.getId() + " does not exist";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Inserts the batch in one transaction; if the database rejects it, retries the films one by one so that
+     * only the offending records are reported.
+     */
+    private void insertImportBatch(List<ImportRecord<Film>> batch, ImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Film> films = batch.stream().map(ImportRecord::getValue).toList();
         try {
-            filmRepository.getFilmById(filmId);
-        } catch (EmptyResultDataAccessException e) {
-            log.warn("Film with id {} not found", filmId);
-            throw new NotFoundException("Film with id " + filmId + " not found");
+            filmRepository.addFilms(films);
+        } catch (DataAccessException e) {
+            log.warn("Batch of {} imported films was rejected, inserting them one by one", films.size());
+            films = new ArrayList<>();
+            for (ImportRecord<Film> record : batch) {
+                try {
+                    filmRepository.addFilms(List.of(record.getValue()));
+                    films.add(record.getValue());
+                } catch (DataAccessException filmException) {
+                    result.addError(record.getRecord(), "Rejected by the database: "
+                            + filmException.getMostSpecificCause().getMessage().lines().findFirst().orElse(""));
+                }
+            }
         }
+
+        result.addImported(films.size());
+        films.forEach(film -> popularityIndex.addFilm(film.getId()));
+        films.forEach(film -> filmVersions.filmChanged(film.getId()));
     }
 
-    private void checkUserExists(Long userId) {
+    private static List<Like> toLikes(List<LikeOperation> operations, List<Integer> indexes) {
+        return indexes.stream()
+                .map(operations::get)
+                .map(operation -> new Like(operation.getFilmId(), operation.getUserId()))
+                .toList();
+    }
+
+    private Film findFilm(Long filmId) {
         try {
-            userRepository.getUserById(userId);
+            return filmRepository.getFilmById(filmId);
         } catch (EmptyResultDataAccessException e) {
+            throw filmNotFound(filmId);
+        }
+    }
+
+    private void checkFilmExists(Long filmId) {
+        if (!filmRepository.existsById(filmId)) {
+            throw filmNotFound(filmId);
+        }
+    }
+
+    private void checkUserExists(Long userId) {
+        if (!userRepository.existsById(userId)) {
             log.warn("User with id {} not found", userId);
             throw new NotFoundException("User with id " + userId + " not found");
         }
     }
 
+    private NotFoundException filmNotFound(Long filmId) {
+        log.warn("Film with id {} not found", filmId);
+        return new NotFoundException("Film with id " + filmId + " not found");
+    }
+
     private void validateFilm(Integer mpaId, LinkedHashSet<Genre> genres) {
         Set<Integer> validMpaIds = mpaRepository.getAllMpaIds();
         Set<Integer> validGenreIds = genreRepository.getAllGenreIds();
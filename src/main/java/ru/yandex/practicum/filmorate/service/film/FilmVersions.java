@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.service.film;
+
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions of the film representations, behind the ETags of {@code /films/{id}} and {@code /films/popular}. A film's
+ * version changes when it is updated, the popular films version when any film or like changes; both are bumped after
+ * the change is written, so a response is never tagged with a newer version than its body. Versions are kept in
+ * memory, like {@link FilmPopularityIndex}, and start over with the application, so the ETags carry an instance id.
+ */
+@Component
+public class FilmVersions {
+    private final String instance = UUID.randomUUID().toString().substring(0, 8);
+    private final ConcurrentHashMap<Long, Long> filmVersions = new ConcurrentHashMap<>();
+    private final AtomicLong popularVersion = new AtomicLong();
+
+    public void filmChanged(long filmId) {
+        filmVersions.merge(filmId, 1L, Long::sum);
+        popularVersion.incrementAndGet();
+    }
+
+    public void likesChanged() {
+        popularVersion.incrementAndGet();
+    }
+
+    public String getFilmETag(long filmId) {
+        return eTag("film-" + filmId + "-" + filmVersions.getOrDefault(filmId, 0L));
+    }
+
+    public String getPopularETag() {
+        return eTag("popular-" + popularVersion.get());
+    }
+
+    private String eTag(String version) {
+        return "\"" + instance + "-" + version + "\"";
+    }
+}
@@ -7,5 +7,9 @@ import java.util.Collection;
 public interface GenreService {
     Collection<Genre> getAllGenres();
 
+    String getAllGenresETag();
+
+    String getGenreETag(Integer id);
+
     Genre getGenreById(Integer id);
 }
@@ -2,22 +2,21 @@ package ru.yandex.practicum.filmorate.service.genre;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.repository.genre.GenreRepository;
+import ru.yandex.practicum.filmorate.repository.genre.CachedGenreRepository;
 
 import java.util.Collection;
 
 @Slf4j
 @Service
 public class GenreServiceImpl implements GenreService {
-    private final GenreRepository genreRepository;
+    private final CachedGenreRepository genreRepository;
 
     @Autowired
-    public GenreServiceImpl(@Qualifier("jdbcGenreRepository") GenreRepository genreRepository) {
+    public GenreServiceImpl(CachedGenreRepository genreRepository) {
         this.genreRepository = genreRepository;
     }
 
@@ -29,6 +28,21 @@ public class GenreServiceImpl implements GenreService {
         return genres;
     }
 
+    // the digests are computed once per refresh of the cached repository
+    @Override
+    public String getAllGenresETag() {
+        return "\"" + genreRepository.getDigest() + "\"";
+    }
+
+    @Override
+    public String getGenreETag(Integer id) {
+        try {
+            return "\"" + genreRepository.getDigest(id) + "\"";
+        } catch (EmptyResultDataAccessException e) {
+            throw new NotFoundException("Genre with id " + id + " not found");
+        }
+    }
+
     @Override
     public Genre getGenreById(Integer id) {
         log.info("Fetching genre with id: {}", id);
@@ -7,5 +7,9 @@ import java.util.Collection;
 public interface MpaService {
     Collection<Mpa> getAllMpa();
 
+    String getAllMpaETag();
+
+    String getMpaETag(Integer id);
+
     Mpa getMpaById(Integer id);
 }
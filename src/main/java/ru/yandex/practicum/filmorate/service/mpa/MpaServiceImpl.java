@@ -2,22 +2,21 @@ package ru.yandex.practicum.filmorate.service.mpa;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Mpa;
-import ru.yandex.practicum.filmorate.repository.mpa.MpaRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.CachedMpaRepository;
 
 import java.util.Collection;
 
 @Slf4j
 @Service
 public class MpaServiceImpl implements MpaService {
-    private final MpaRepository mpaRepository;
+    private final CachedMpaRepository mpaRepository;
 
     @Autowired
-    public MpaServiceImpl(@Qualifier("jdbcMpaRepository") MpaRepository mpaRepository) {
+    public MpaServiceImpl(CachedMpaRepository mpaRepository) {
         this.mpaRepository = mpaRepository;
     }
 
@@ -29,6 +28,21 @@ public class MpaServiceImpl implements MpaService {
         return mpa;
     }
 
+    // the digests are computed once per refresh of the cached repository
+    @Override
+    public String getAllMpaETag() {
+        return "\"" + mpaRepository.getDigest() + "\"";
+    }
+
+    @Override
+    public String getMpaETag(Integer id) {
+        try {
+            return "\"" + mpaRepository.getDigest(id) + "\"";
+        } catch (EmptyResultDataAccessException e) {
+            throw new NotFoundException("MPA with id " + id + " not found");
+        }
+    }
+
     @Override
     public Mpa getMpaById(Integer id) {
         log.info("Fetching MPA rating with id: {}", id);
@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.service.user;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.repository.LongHashSet;
+import ru.yandex.practicum.filmorate.repository.user.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Friendships held in memory as unboxed adjacency sets for friend-of-friend suggestions. Updates share the read
+ * side of {@code rebuildLock} and only {@link #rebuild()} takes the write side, so no change is lost while the
+ * graph is reloaded. Suggestions scan at most {@link #MAX_SCANNED_FRIENDS} friends of the user and as many of
+ * each friend's friends, which bounds the work for users with very large friend lists.
+ */
+@Slf4j
+@Component
+public class FriendGraph {
+    private static final int MAX_SCANNED_FRIENDS = 1000;
+
+    private static final Comparator<Suggestion> WORST_FIRST = Comparator.comparingInt(Suggestion::mutualFriends)
+            .thenComparing(Comparator.comparingLong(Suggestion::userId).reversed());
+
+    private final UserRepository userRepository;
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile ConcurrentMap<Long, LongHashSet> friends = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FriendGraph(@Qualifier("jdbcUserRepository") UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            ConcurrentMap<Long, LongHashSet> rebuilt = new ConcurrentHashMap<>();
+            userRepository.streamFriendships((userId, friendId) ->
+                    rebuilt.computeIfAbsent(userId, k -> new LongHashSet()).add(friendId));
+            friends = rebuilt;
+            log.info("Friend graph built for {} users", rebuilt.size());
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    public void addFriend(Long userId, Long friendId) {
+        rebuildLock.readLock().lock();
+        try {
+            friends.computeIfAbsent(userId, k -> new LongHashSet()).add(friendId);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void removeFriend(Long userId, Long friendId) {
+        rebuildLock.readLock().lock();
+        try {
+            LongHashSet friendIds = friends.get(userId);
+            if (friendIds != null) {
+                friendIds.remove(friendId);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Users who are not yet friends of {@code userId}, most mutual friends first, ties broken by the lower id.
+     */
+    public List<Suggestion> suggestFriends(Long userId, int count) {
+        Map<Long, LongHashSet> graph = friends;
+        LongHashSet userFriends = graph.get(userId);
+        if (userFriends == null || count <= 0) {
+            return List.of();
+        }
+
+        Map<Long, Integer> mutualFriends = new HashMap<>();
+        for (long friendId : userFriends.toArray(MAX_SCANNED_FRIENDS)) {
+            LongHashSet friendsOfFriend = graph.get(friendId);
+            if (friendsOfFriend == null) {
+                continue;
+            }
+            for (long candidateId : friendsOfFriend.toArray(MAX_SCANNED_FRIENDS)) {
+                if (candidateId != userId && !userFriends.contains(candidateId)) {
+                    mutualFriends.merge(candidateId, 1, Integer::sum);
+                }
+            }
+        }
+
+        PriorityQueue<Suggestion> top = new PriorityQueue<>(count + 1, WORST_FIRST);
+        mutualFriends.forEach((candidateId, mutual) -> {
+            top.add(new Suggestion(candidateId, mutual));
+            if (top.size() > count) {
+                top.poll();
+            }
+        });
+
+        List<Suggestion> suggestions = new ArrayList<>(top);
+        suggestions.sort(WORST_FIRST.reversed());
+        return suggestions;
+    }
+
+    public record Suggestion(long userId, int mutualFriends) {
+    }
+}
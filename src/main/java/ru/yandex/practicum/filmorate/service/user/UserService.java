@@ -1,24 +1,39 @@
 package ru.yandex.practicum.filmorate.service.user;
 
+import ru.yandex.practicum.filmorate.model.ImportRecord;
+import ru.yandex.practicum.filmorate.model.ImportResult;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public interface UserService {
     User createUser(User user);
 
+    ImportResult importUsers(Iterator<ImportRecord<User>> records);
+
     User updateUser(User user);
 
     User getUserById(Long id);
 
     Collection<User> getAllUsers();
 
+    Collection<User> getUsersPage(Long after, Integer limit);
+
+    void streamAllUsers(Consumer<User> consumer);
+
     Set<User> getAllFriends(Long id);
 
     Set<User> getCommonFriends(Long userId1, Long userId2);
 
+    List<User> getFollowers(Long id);
+
     void addFriend(Long userId1, Long userId2);
 
     void removeFriend(Long userId1, Long userId2);
+
+    List<User> getFriendSuggestions(Long id, Integer count);
 }
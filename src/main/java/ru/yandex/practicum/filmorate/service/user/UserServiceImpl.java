@@ -1,35 +1,89 @@
 package ru.yandex.practicum.filmorate.service.user;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.ImportError;
+import ru.yandex.practicum.filmorate.model.ImportRecord;
+import ru.yandex.practicum.filmorate.model.ImportResult;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.repository.user.UserRepository;
+import ru.yandex.practicum.filmorate.validation.CreateGroup;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class UserServiceImpl implements UserService {
+    private static final int IMPORT_BATCH_SIZE = 1000;
+
     private final UserRepository userRepository;
+    private final FriendGraph friendGraph;
+    private final Validator validator;
 
     @Autowired
-    public UserServiceImpl(@Qualifier("jdbcUserRepository") UserRepository userRepository) {
+    public UserServiceImpl(@Qualifier("jdbcUserRepository") UserRepository userRepository, FriendGraph friendGraph,
+                           Validator validator) {
         this.userRepository = userRepository;
+        this.friendGraph = friendGraph;
+        this.validator = validator;
     }
 
     @Override
     public User createUser(User user) {
-        log.info("Creating user with details: {}", user);
+        log.info("Creating user: {}", user.getLogin());
+        log.debug("User details: {}", user);
         User createdUser = userRepository.createUser(user);
         log.info("Created user with id: {}", createdUser.getId());
         return createdUser;
     }
 
+    @Override
+    public ImportResult importUsers(Iterator<ImportRecord<User>> records) {
+        log.info("Importing users");
+        ImportResult result = new ImportResult();
+        List<ImportRecord<User>> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        while (records.hasNext()) {
+            ImportRecord<User> record = records.next();
+            if (record.isTerminal()) {
+                log.warn("Import stopped at record {}: {}", record.getRecord(), record.getError());
+                result.setTerminalError(new ImportError(record.getRecord(), record.getError()));
+                break;
+            }
+            String error = record.getError() != null ? record.getError() : validateImportedUser(record.getValue());
+            if (error != null) {
+                result.addError(record.getRecord(), error);
+                continue;
+            }
+            batch.add(record);
+            if (batch.size() == IMPORT_BATCH_SIZE) {
+                importBatch(batch, result);
+                batch.clear();
+            }
+        }
+        importBatch(batch, result);
+
+        log.info("Imported {} users, {} records failed", result.getImported(), result.getFailed());
+        return result;
+    }
+
     @Override
     public User updateUser(User user) {
         log.info("Updating user with id: {}", user.getId());
@@ -42,8 +96,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public User getUserById(Long id) {
         log.info("Fetching user with id: {}", id);
-        checkUserExists(id);
-        User user = userRepository.getUserById(id);
+        User user = findUser(id);
         log.info("Returning user with id: {}", id);
         return user;
     }
@@ -56,6 +109,20 @@ public class UserServiceImpl implements UserService {
         return users;
     }
 
+    @Override
+    public Collection<User> getUsersPage(Long after, Integer limit) {
+        log.info("Fetching up to {} users after id: {}", limit, after);
+        Collection<User> users = userRepository.getUsersPage(after, limit);
+        log.info("Fetched {} users", users.size());
+        return users;
+    }
+
+    @Override
+    public void streamAllUsers(Consumer<User> consumer) {
+        log.info("Streaming all users");
+        userRepository.streamAllUsers(consumer);
+    }
+
     @Override
     public Set<User> getAllFriends(Long id) {
         log.info("Fetching all friends for user with id: {}", id);
@@ -69,6 +136,15 @@ public class UserServiceImpl implements UserService {
         return friends;
     }
 
+    @Override
+    public List<User> getFollowers(Long id) {
+        log.info("Fetching followers of user with id: {}", id);
+        checkUserExists(id);
+        List<User> followers = userRepository.getFollowers(id);
+        log.info("Fetched {} followers of user with id: {}", followers.size(), id);
+        return followers;
+    }
+
     @Override
     public Set<User> getCommonFriends(Long userId1, Long userId2) {
         log.info("Fetching common friends between user with id: {} and user with id: {}", userId1, userId2);
@@ -85,6 +161,7 @@ public class UserServiceImpl implements UserService {
         checkUserExists(userId1);
         checkUserExists(userId2);
         userRepository.addFriend(userId1, userId2);
+        friendGraph.addFriend(userId1, userId2);
         log.info("Added user with id: {} as friend to user with id: {}", userId2, userId1);
     }
 
@@ -94,17 +171,117 @@ public class UserServiceImpl implements UserService {
         checkUserExists(userId1);
         checkUserExists(userId2);
         userRepository.removeFriend(userId1, userId2);
+        friendGraph.removeFriend(userId1, userId2);
         log.info("Removed user with id: {} as friend from user with id: {}", userId2, userId1);
     }
 
-    private void checkUserExists(Long userId) {
+    @Override
+    public List<User> getFriendSuggestions(Long id, Integer count) {
+        log.info("Fetching up to {} friend suggestions for user with id: {}", count, id);
+        checkUserExists(id);
+        List<Long> suggestedIds = friendGraph.suggestFriends(id, count).stream()
+                .map(FriendGraph.Suggestion::userId)
+                .toList();
+
+        Map<Long, User> usersById = userRepository.getUsersByIds(suggestedIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<User> suggestions = suggestedIds.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        log.info("Fetched {} friend suggestions for user with id: {}", suggestions.size(), id);
+        return suggestions;
+    }
+
+    private String validateImportedUser(User user) {
+        if (user == null) {
+            return "User cannot be null";
+        }
+        Set<ConstraintViolation<User>> violations = validator.validate(user, Default.class, CreateGroup.class);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        return null;
+    }
+
+    /**
+     * Rejects records whose email or login is already taken, either in the database, which includes earlier
+     * batches of this import, or by an earlier accepted record of the batch, then inserts the rest.
+     */
+    private void importBatch(List<ImportRecord<User>> batch, ImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<String> takenEmails = userRepository.findExistingEmails(
+                batch.stream().map(record -> record.getValue().getEmail()).toList());
+        Set<String> takenLogins = userRepository.findExistingLogins(
+                batch.stream().map(record -> record.getValue().getLogin()).toList());
+
+        Map<String, Long> emailRecords = new HashMap<>();
+        Map<String, Long> loginRecords = new HashMap<>();
+        List<ImportRecord<User>> accepted = new ArrayList<>(batch.size());
+        for (ImportRecord<User> record : batch) {
+            User user = record.getValue();
+            Long emailRecord = emailRecords.get(user.getEmail());
+            Long loginRecord = loginRecords.get(user.getLogin());
+            if (takenEmails.contains(user.getEmail())) {
+                result.addError(record.getRecord(), "Email " + user.getEmail() + " is already in use");
+            } else if (takenLogins.contains(user.getLogin())) {
+                result.addError(record.getRecord(), "Login " + user.getLogin() + " is already in use");
+            } else if (emailRecord != null) {
+                result.addError(record.getRecord(), "Email " + user.getEmail() + " duplicates record " + emailRecord);
+            } else if (loginRecord != null) {
+                result.addError(record.getRecord(), "Login " + user.getLogin() + " duplicates record " + loginRecord);
+            } else {
+                user.setName(user.getDisplayName());
+                emailRecords.put(user.getEmail(), record.getRecord());
+                loginRecords.put(user.getLogin(), record.getRecord());
+                accepted.add(record);
+            }
+        }
+        insertImportBatch(accepted, result);
+    }
+
+    private void insertImportBatch(List<ImportRecord<User>> batch, ImportResult result) {
+        List<User> users = batch.stream().map(ImportRecord::getValue).toList();
+        try {
+            userRepository.addUsers(users);
+            result.addImported(users.size());
+        } catch (DataAccessException e) {
+            log.warn("Batch of {} imported users was rejected, inserting them one by one", users.size());
+            for (ImportRecord<User> record : batch) {
+                try {
+                    userRepository.addUsers(List.of(record.getValue()));
+                    result.addImported(1);
+                } catch (DataAccessException userException) {
+                    result.addError(record.getRecord(), "Rejected by the database: "
+                            + userException.getMostSpecificCause().getMessage().lines().findFirst().orElse(""));
+                }
+            }
+        }
+    }
+
+    private User findUser(Long userId) {
         try {
-            userRepository.getUserById(userId);
+            return userRepository.getUserById(userId);
         } catch (EmptyResultDataAccessException e) {
-            log.warn("User with id {} not found", userId);
-            throw new NotFoundException("User with id " + userId + " not found");
+            throw userNotFound(userId);
         }
     }
+
+    private void checkUserExists(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw userNotFound(userId);
+        }
+    }
+
+    private NotFoundException userNotFound(Long userId) {
+        log.warn("User with id {} not found", userId);
+        return new NotFoundException("User with id " + userId + " not found");
+    }
 }
 
 
@@ -16,6 +16,7 @@ CREATE TABLE IF NOT EXISTS films (
     release_date DATE CHECK (release_date <= CURRENT_DATE),
     duration FLOAT CHECK (duration > 0),
     mpa_id INTEGER,
+    like_count INTEGER DEFAULT 0 NOT NULL,
     CONSTRAINT fk_mpa_films FOREIGN KEY (mpa_id) REFERENCES mpa (mpa_id)
 );
 
@@ -51,3 +52,21 @@ CREATE TABLE IF NOT EXISTS likes (
     CONSTRAINT fk_user_like FOREIGN KEY (user_id) REFERENCES users (user_id)
 );
 
+-- like_count migration for databases created before the column existed; the backfill counts all likes in one
+-- grouped pass and only writes films whose counter is off, so re-running the script over an up-to-date database
+-- changes no rows
+ALTER TABLE films ADD COLUMN IF NOT EXISTS like_count INTEGER DEFAULT 0 NOT NULL;
+
+MERGE INTO films f
+USING (SELECT films.film_id, COUNT(likes.user_id) AS likes
+       FROM films LEFT JOIN likes ON likes.film_id = films.film_id
+       GROUP BY films.film_id) counted
+ON f.film_id = counted.film_id
+WHEN MATCHED AND f.like_count <> counted.likes THEN UPDATE SET like_count = counted.likes;
+
+CREATE INDEX IF NOT EXISTS idx_films_like_count ON films (like_count DESC, film_id);
+
+-- reverse lookups: films liked by a user, users who added a user as a friend
+CREATE INDEX IF NOT EXISTS idx_likes_user_film ON likes (user_id, film_id);
+
+CREATE INDEX IF NOT EXISTS idx_friends_friend_user ON friends (friend_id, user_id);
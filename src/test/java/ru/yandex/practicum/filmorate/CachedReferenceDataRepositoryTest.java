@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.repository.genre.CachedGenreRepository;
+import ru.yandex.practicum.filmorate.repository.genre.JdbcGenreRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.CachedMpaRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.JdbcMpaRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@Import({JdbcGenreRepository.class, JdbcMpaRepository.class, CachedGenreRepository.class, CachedMpaRepository.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DisplayName("CachedReferenceDataRepositoryTest")
+public class CachedReferenceDataRepositoryTest {
+    private final CachedGenreRepository genreRepository;
+    private final CachedMpaRepository mpaRepository;
+    private final NamedParameterJdbcOperations jdbc;
+
+    @AfterEach
+    public void tearDown() {
+        genreRepository.refresh();
+        mpaRepository.refresh();
+    }
+
+    @Test
+    @DisplayName("should serve genres from the snapshot until refreshed")
+    public void shouldServeGenresFromSnapshotUntilRefreshed() {
+        jdbc.update("INSERT INTO genres (genre_id, name) VALUES (:id, :name)",
+                new MapSqlParameterSource().addValue("id", 4).addValue("name", "Horror"));
+
+        assertThat(genreRepository.getAllGenreIds()).containsExactlyInAnyOrder(1, 2, 3);
+        assertThatThrownBy(() -> genreRepository.getGenreById(4))
+                .isInstanceOf(EmptyResultDataAccessException.class);
+
+        genreRepository.refresh();
+
+        assertThat(genreRepository.getGenreById(4)).usingRecursiveComparison().isEqualTo(new Genre(4, "Horror"));
+        assertThat(genreRepository.getAllGenres()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("should serve MPA ratings from the snapshot until refreshed")
+    public void shouldServeMpaFromSnapshotUntilRefreshed() {
+        jdbc.update("INSERT INTO mpa (mpa_id, name) VALUES (:id, :name)",
+                new MapSqlParameterSource().addValue("id", 3).addValue("name", "PG"));
+
+        assertThat(mpaRepository.getAllMpaIds()).containsExactlyInAnyOrder(1, 2);
+        assertThatThrownBy(() -> mpaRepository.getMpaById(3))
+                .isInstanceOf(EmptyResultDataAccessException.class);
+
+        mpaRepository.refresh();
+
+        assertThat(mpaRepository.getMpaById(3)).usingRecursiveComparison().isEqualTo(new Mpa(3, "PG"));
+        assertThat(mpaRepository.getAllMpa()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("should expose immutable snapshots")
+    public void shouldExposeImmutableSnapshots() {
+        assertThatThrownBy(() -> genreRepository.getAllGenres().clear())
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> mpaRepository.getAllMpaIds().add(42))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    @DisplayName("should change digests only when a refresh brings in other content")
+    public void shouldDigestSnapshotContent() {
+        genreRepository.refresh();
+        mpaRepository.refresh();
+        String genres = genreRepository.getDigest();
+        String comedy = genreRepository.getDigest(3);
+        String mpa = mpaRepository.getDigest();
+
+        genreRepository.refresh();
+        mpaRepository.refresh();
+        assertThat(genreRepository.getDigest()).isEqualTo(genres).hasSize(32);
+        assertThat(mpaRepository.getDigest()).isEqualTo(mpa);
+
+        jdbc.update("UPDATE genres SET name = 'Satire' WHERE genre_id = 3", new MapSqlParameterSource());
+        assertThat(genreRepository.getDigest()).isEqualTo(genres);
+        genreRepository.refresh();
+
+        assertThat(genreRepository.getDigest()).isNotEqualTo(genres);
+        assertThat(genreRepository.getDigest(3)).isNotEqualTo(comedy);
+        assertThat(genreRepository.getDigest(1)).isNotEqualTo(genreRepository.getDigest(2));
+        assertThatThrownBy(() -> genreRepository.getDigest(4)).isInstanceOf(EmptyResultDataAccessException.class);
+    }
+}
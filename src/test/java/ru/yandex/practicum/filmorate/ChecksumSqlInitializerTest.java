@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate;
+
+import org.h2.Driver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.yandex.practicum.filmorate.config.ChecksumSqlInitializer;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ChecksumSqlInitializerTest")
+public class ChecksumSqlInitializerTest {
+    private final SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new Driver(),
+            "jdbc:h2:mem:checksum-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    private final JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+    private void initialize(String... dataLocations) {
+        SqlInitializationProperties properties = new SqlInitializationProperties();
+        properties.setMode(DatabaseInitializationMode.ALWAYS);
+        properties.setSchemaLocations(List.of("classpath:schema.sql"));
+        properties.setDataLocations(List.of(dataLocations));
+        new ChecksumSqlInitializer(dataSource, properties).initializeDatabase();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbc.execute("SHUTDOWN");
+    }
+
+    @Test
+    @DisplayName("should not run scripts again once they are applied")
+    public void shouldSkipAppliedScripts() {
+        initialize("classpath:test-data.sql");
+        jdbc.update("UPDATE films SET name = 'Renamed' WHERE film_id = 1");
+
+        initialize("classpath:test-data.sql");
+
+        assertThat(jdbc.queryForObject("SELECT name FROM films WHERE film_id = 1", String.class))
+                .isEqualTo("Renamed");
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM films", Integer.class)).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM schema_checksums", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should run scripts whose content has changed")
+    public void shouldApplyChangedScripts() {
+        initialize("classpath:test-data.sql");
+
+        initialize("classpath:data.sql");
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM mpa", Integer.class)).isEqualTo(5);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM schema_checksums", Integer.class)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("should correct like counts that are off when the schema is applied again")
+    public void shouldBackfillStaleLikeCounts() {
+        initialize("classpath:test-data.sql");
+        jdbc.update("UPDATE films SET like_count = 7 WHERE film_id = 1");
+
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+
+        assertThat(jdbc.queryForObject("SELECT like_count FROM films WHERE film_id = 1", Integer.class)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.config.MetricsConfig;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.repository.film.JdbcFilmRepository;
+import ru.yandex.practicum.filmorate.repository.film.LikeWriteBuffer;
+import ru.yandex.practicum.filmorate.repository.genre.CachedGenreRepository;
+import ru.yandex.practicum.filmorate.repository.genre.JdbcGenreRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.CachedMpaRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.JdbcMpaRepository;
+import ru.yandex.practicum.filmorate.repository.user.JdbcUserRepository;
+import ru.yandex.practicum.filmorate.service.film.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.service.film.FilmRecommendationIndex;
+import ru.yandex.practicum.filmorate.service.film.FilmServiceImpl;
+import ru.yandex.practicum.filmorate.service.film.FilmVersions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@Import({JdbcFilmRepository.class, JdbcUserRepository.class, JdbcMpaRepository.class, JdbcGenreRepository.class,
+        CachedMpaRepository.class, CachedGenreRepository.class, FilmPopularityIndex.class,
+        FilmRecommendationIndex.class, FilmVersions.class, LikeWriteBuffer.class, FilmServiceImpl.class,
+        ValidationAutoConfiguration.class, MetricsConfig.class, SimpleMeterRegistry.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DisplayName("FilmLikeTest")
+public class FilmLikeTest {
+    private static final long TEST_FILM_ID = 1L;
+
+    private final FilmServiceImpl filmService;
+
+    @Test
+    @DisplayName("should add and remove a like in two statements each")
+    public void shouldLikeInTwoStatements() {
+        assertThat(SqlBudget.assertStatementsAtMost(2, () -> filmService.addLike(TEST_FILM_ID, 2L))
+                .getStatements()).isEqualTo(2);
+        assertThat(filmService.getPopularMovies(1L)).extracting(Film::getId).containsExactly(TEST_FILM_ID);
+
+        assertThat(SqlBudget.assertStatementsAtMost(2, () -> filmService.removeLike(TEST_FILM_ID, 2L))
+                .getStatements()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should not change anything when the like already exists")
+    public void shouldIgnoreRepeatedLike() {
+        assertThat(SqlBudget.assertStatementsAtMost(1, () -> filmService.addLike(TEST_FILM_ID, 1L))
+                .getStatements()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should report a missing film or user")
+    public void shouldReportMissingFilmOrUser() {
+        assertThatThrownBy(() -> filmService.addLike(999L, 2L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Film with id 999 not found");
+        assertThatThrownBy(() -> filmService.addLike(TEST_FILM_ID, 999L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("User with id 999 not found");
+        assertThatThrownBy(() -> filmService.removeLike(999L, 1L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Film with id 999 not found");
+        assertThatThrownBy(() -> filmService.removeLike(TEST_FILM_ID, 999L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("User with id 999 not found");
+    }
+}
@@ -0,0 +1,194 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.repository.film.JdbcFilmRepository;
+import ru.yandex.practicum.filmorate.repository.genre.CachedGenreRepository;
+import ru.yandex.practicum.filmorate.repository.genre.JdbcGenreRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.CachedMpaRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.JdbcMpaRepository;
+import ru.yandex.practicum.filmorate.service.film.FilmPopularityIndex;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@Import({JdbcFilmRepository.class, JdbcMpaRepository.class, JdbcGenreRepository.class,
+        CachedMpaRepository.class, CachedGenreRepository.class, FilmPopularityIndex.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DisplayName("FilmPopularityIndexTest")
+public class FilmPopularityIndexTest {
+    private static final long TEST_FILM_ID = 1L;
+
+    private final JdbcFilmRepository filmRepository;
+    private final FilmPopularityIndex popularityIndex;
+    private final JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        popularityIndex.rebuild();
+    }
+
+    private Film addFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description for " + name);
+        film.setReleaseDate(LocalDate.of(2020, 1, 1));
+        film.setDuration(100);
+        film.setMpa(new Mpa(1, "G"));
+        Film added = filmRepository.addFilm(film);
+        popularityIndex.addFilm(added.getId());
+        return added;
+    }
+
+    @Test
+    @DisplayName("should be built at startup from likes")
+    public void shouldBeBuiltFromLikes() {
+        assertThat(popularityIndex.getPopularFilmIds(10)).containsExactly(TEST_FILM_ID);
+        assertThat(popularityIndex.verify()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should know every film, liked or not")
+    public void shouldContainEveryFilm() {
+        Film added = addFilm("Unliked");
+
+        assertThat(popularityIndex.containsFilm(TEST_FILM_ID)).isTrue();
+        assertThat(popularityIndex.containsFilm(added.getId())).isTrue();
+        assertThat(popularityIndex.containsFilm(999L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("should rank films incrementally by like count")
+    public void shouldRankFilmsIncrementally() {
+        Film first = addFilm("First");
+        Film second = addFilm("Second");
+
+        popularityIndex.adjustLikes(second.getId(), 1);
+        popularityIndex.adjustLikes(second.getId(), 1);
+        popularityIndex.adjustLikes(first.getId(), 1);
+
+        assertThat(popularityIndex.getPopularFilmIds(2)).containsExactly(second.getId(), TEST_FILM_ID);
+
+        popularityIndex.adjustLikes(second.getId(), -2);
+
+        assertThat(popularityIndex.getPopularFilmIds(10)).containsExactly(TEST_FILM_ID, first.getId(), second.getId());
+    }
+
+    @Test
+    @DisplayName("should be seeded from the stored like counters")
+    public void shouldBeSeededFromLikeCounters() {
+        Film film = addFilm("Counted");
+        jdbcTemplate.update("UPDATE films SET like_count = 5 WHERE film_id = ?", film.getId());
+
+        popularityIndex.rebuild();
+
+        assertThat(popularityIndex.getPopularFilmIds(10)).containsExactly(film.getId(), TEST_FILM_ID);
+    }
+
+    @Test
+    @DisplayName("should report and repair divergence from the database")
+    public void shouldVerifyAndRebuild() {
+        Film film = addFilm("Liked behind the index");
+        filmRepository.addLike(film.getId(), 1L);
+
+        assertThat(popularityIndex.verify()).containsExactly(film.getId());
+
+        popularityIndex.rebuild();
+
+        assertThat(popularityIndex.verify()).isEmpty();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("should count a like committed before a rebuild but adjusted after it once")
+    public void shouldNotCountLikeTwiceAcrossRebuild() throws Exception {
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch adjust = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> like = executor.submit(() -> popularityIndex.guardLikeWrite(() -> {
+                filmRepository.addLike(TEST_FILM_ID, 2L);
+                committed.countDown();
+                try {
+                    adjust.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                popularityIndex.adjustLikes(TEST_FILM_ID, 1);
+            }));
+            assertThat(committed.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<?> rebuild = executor.submit(popularityIndex::rebuild);
+            Thread.sleep(100);
+            assertThat(rebuild.isDone()).as("rebuild waits for the pending adjustment").isFalse();
+
+            adjust.countDown();
+            like.get();
+            rebuild.get();
+
+            assertThat(popularityIndex.verify()).isEmpty();
+        } finally {
+            adjust.countDown();
+            executor.shutdown();
+            filmRepository.removeLike(TEST_FILM_ID, 2L);
+            popularityIndex.rebuild();
+        }
+    }
+
+    @Test
+    @DisplayName("should stay consistent under concurrent like storms")
+    public void shouldStayConsistentUnderConcurrentUpdates() throws Exception {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            films.add(addFilm("Film " + i));
+        }
+
+        int threads = 8;
+        int iterations = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < iterations; i++) {
+                        Film film = films.get((thread + i) % films.size());
+                        popularityIndex.adjustLikes(film.getId(), 1);
+                        if (i % 2 == 0) {
+                            popularityIndex.adjustLikes(film.getId(), -1);
+                        }
+                        assertThat(popularityIndex.getPopularFilmIds(films.size() + 1)).hasSize(films.size() + 1);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Long> popular = popularityIndex.getPopularFilmIds(films.size() + 1);
+        assertThat(popular).hasSize(films.size() + 1);
+        assertThat(popular).doesNotHaveDuplicates();
+        assertThat(popular.getLast()).isEqualTo(TEST_FILM_ID);
+    }
+}
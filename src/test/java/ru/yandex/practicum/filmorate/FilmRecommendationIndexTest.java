@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.film.JdbcFilmRepository;
+import ru.yandex.practicum.filmorate.repository.genre.CachedGenreRepository;
+import ru.yandex.practicum.filmorate.repository.genre.JdbcGenreRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.CachedMpaRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.JdbcMpaRepository;
+import ru.yandex.practicum.filmorate.repository.user.JdbcUserRepository;
+import ru.yandex.practicum.filmorate.service.film.FilmRecommendationIndex;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@Import({JdbcFilmRepository.class, JdbcUserRepository.class, JdbcMpaRepository.class, JdbcGenreRepository.class,
+        CachedMpaRepository.class, CachedGenreRepository.class, FilmRecommendationIndex.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DisplayName("FilmRecommendationIndexTest")
+public class FilmRecommendationIndexTest {
+    private static final long TEST_FILM_ID = 1L;
+    private static final long TEST_USER_ID = 1L;
+    private static final long TEST_FRIEND_ID = 2L;
+    private static final long COMMON_FRIEND_ID = 3L;
+
+    private final JdbcFilmRepository filmRepository;
+    private final JdbcUserRepository userRepository;
+    private final FilmRecommendationIndex recommendationIndex;
+
+    @BeforeEach
+    public void setUp() {
+        recommendationIndex.rebuild();
+    }
+
+    private long addFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description for " + name);
+        film.setReleaseDate(LocalDate.of(2020, 1, 1));
+        film.setDuration(100);
+        film.setMpa(new Mpa(1, "G"));
+        return filmRepository.addFilm(film).getId();
+    }
+
+    private long addUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1995, 5, 5));
+        return userRepository.createUser(user).getId();
+    }
+
+    private void like(long filmId, long userId) {
+        filmRepository.addLike(filmId, userId);
+        recommendationIndex.addLike(filmId, userId);
+    }
+
+    @Test
+    @DisplayName("should recommend films liked by the most similar users")
+    public void shouldRecommendFilmsOfSimilarUsers() {
+        long shared = addFilm("Shared");
+        long likedBySimilar = addFilm("Liked by similar");
+        long likedByOther = addFilm("Liked by other");
+        like(shared, TEST_USER_ID);
+        like(shared, TEST_FRIEND_ID);
+        like(likedBySimilar, TEST_FRIEND_ID);
+        like(TEST_FILM_ID, COMMON_FRIEND_ID);
+        like(likedByOther, COMMON_FRIEND_ID);
+
+        assertThat(recommendationIndex.recommendFilms(TEST_USER_ID, 10))
+                .containsExactly(likedBySimilar, likedByOther);
+    }
+
+    @Test
+    @DisplayName("should not recommend films the user already liked")
+    public void shouldSkipLikedFilms() {
+        like(TEST_FILM_ID, TEST_FRIEND_ID);
+
+        assertThat(recommendationIndex.recommendFilms(TEST_USER_ID, 10)).isEmpty();
+        assertThat(recommendationIndex.recommendFilms(addUser("newcomer"), 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should follow removed likes")
+    public void shouldFollowRemovedLikes() {
+        long film = addFilm("Film");
+        like(TEST_FILM_ID, TEST_FRIEND_ID);
+        like(film, TEST_FRIEND_ID);
+
+        assertThat(recommendationIndex.recommendFilms(TEST_USER_ID, 10)).containsExactly(film);
+
+        filmRepository.removeLike(TEST_FILM_ID, TEST_FRIEND_ID);
+        recommendationIndex.removeLike(TEST_FILM_ID, TEST_FRIEND_ID);
+
+        assertThat(recommendationIndex.recommendFilms(TEST_USER_ID, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should be rebuilt from the likes table")
+    public void shouldRebuildFromDatabase() {
+        long film = addFilm("Film");
+        filmRepository.addLike(TEST_FILM_ID, TEST_FRIEND_ID);
+        filmRepository.addLike(film, TEST_FRIEND_ID);
+
+        assertThat(recommendationIndex.recommendFilms(TEST_USER_ID, 10)).isEmpty();
+
+        recommendationIndex.rebuild();
+
+        assertThat(recommendationIndex.recommendFilms(TEST_USER_ID, 10)).containsExactly(film);
+    }
+}
@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.user.JdbcUserRepository;
+import ru.yandex.practicum.filmorate.service.user.FriendGraph;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@Import({JdbcUserRepository.class, FriendGraph.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DisplayName("FriendGraphTest")
+public class FriendGraphTest {
+    private static final long TEST_USER_ID = 1L;
+    private static final long TEST_FRIEND_ID = 2L;
+    private static final long COMMON_FRIEND_ID = 3L;
+
+    private final JdbcUserRepository userRepository;
+    private final FriendGraph friendGraph;
+
+    @BeforeEach
+    public void setUp() {
+        friendGraph.rebuild();
+    }
+
+    private long addUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1995, 5, 5));
+        return userRepository.createUser(user).getId();
+    }
+
+    private void addFriend(long userId, long friendId) {
+        userRepository.addFriend(userId, friendId);
+        friendGraph.addFriend(userId, friendId);
+    }
+
+    @Test
+    @DisplayName("should rank non-friends by mutual friends")
+    public void shouldRankByMutualFriends() {
+        long popular = addUser("popular");
+        long lessPopular = addUser("lessPopular");
+        addFriend(TEST_USER_ID, TEST_FRIEND_ID);
+        addFriend(COMMON_FRIEND_ID, popular);
+        addFriend(TEST_FRIEND_ID, popular);
+        addFriend(TEST_FRIEND_ID, lessPopular);
+        addFriend(TEST_FRIEND_ID, TEST_USER_ID);
+
+        assertThat(friendGraph.suggestFriends(TEST_USER_ID, 10))
+                .containsExactly(new FriendGraph.Suggestion(popular, 2),
+                        new FriendGraph.Suggestion(lessPopular, 1));
+    }
+
+    @Test
+    @DisplayName("should keep only the top suggestions")
+    public void shouldLimitSuggestions() {
+        for (int i = 0; i < 5; i++) {
+            addFriend(COMMON_FRIEND_ID, addUser("candidate" + i));
+        }
+
+        assertThat(friendGraph.suggestFriends(TEST_USER_ID, 3))
+                .hasSize(3)
+                .extracting(FriendGraph.Suggestion::userId)
+                .isSorted();
+    }
+
+    @Test
+    @DisplayName("should follow removed friendships")
+    public void shouldFollowRemovedFriendships() {
+        long candidate = addUser("candidate");
+        addFriend(COMMON_FRIEND_ID, candidate);
+
+        userRepository.removeFriend(TEST_USER_ID, COMMON_FRIEND_ID);
+        friendGraph.removeFriend(TEST_USER_ID, COMMON_FRIEND_ID);
+
+        assertThat(friendGraph.suggestFriends(TEST_USER_ID, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should be rebuilt from the friends table")
+    public void shouldRebuildFromDatabase() {
+        long candidate = addUser("candidate");
+        userRepository.addFriend(COMMON_FRIEND_ID, candidate);
+
+        assertThat(friendGraph.suggestFriends(TEST_USER_ID, 10)).isEmpty();
+
+        friendGraph.rebuild();
+
+        assertThat(friendGraph.suggestFriends(TEST_USER_ID, 10))
+                .containsExactly(new FriendGraph.Suggestion(candidate, 1));
+    }
+}
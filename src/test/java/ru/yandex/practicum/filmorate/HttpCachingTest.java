@@ -0,0 +1,133 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.controller.GenreController;
+import ru.yandex.practicum.filmorate.controller.NdjsonWriter;
+import ru.yandex.practicum.filmorate.exception.ErrorHandler;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.service.film.FilmService;
+import ru.yandex.practicum.filmorate.service.film.FilmVersions;
+import ru.yandex.practicum.filmorate.service.genre.GenreService;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("HttpCachingTest")
+public class HttpCachingTest {
+    private final FilmVersions filmVersions = new FilmVersions();
+
+    @Test
+    @DisplayName("should change a film's ETag only when the film changes")
+    public void shouldVersionFilms() {
+        String film = filmVersions.getFilmETag(1);
+        String popular = filmVersions.getPopularETag();
+
+        filmVersions.likesChanged();
+        assertThat(filmVersions.getFilmETag(1)).isEqualTo(film);
+        assertThat(filmVersions.getPopularETag()).isNotEqualTo(popular);
+
+        popular = filmVersions.getPopularETag();
+        filmVersions.filmChanged(1);
+        assertThat(filmVersions.getFilmETag(1)).isNotEqualTo(film).startsWith("\"").endsWith("\"");
+        assertThat(filmVersions.getFilmETag(2)).isNotEqualTo(filmVersions.getFilmETag(1));
+        assertThat(filmVersions.getPopularETag()).isNotEqualTo(popular);
+    }
+
+    @Test
+    @DisplayName("should answer a matching If-None-Match with 304 without reading the film")
+    public void shouldAnswerNotModifiedWithoutReadingFilm() throws Exception {
+        FilmService filmService = mock(FilmService.class);
+        when(filmService.getFilmETag(1L)).thenAnswer(invocation -> filmVersions.getFilmETag(1));
+        when(filmService.getFilmById(1L)).thenReturn(new Film());
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new FilmController(filmService, mock(NdjsonWriter.class)))
+                .build();
+
+        MvcResult first = mvc.perform(get("/films/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/films/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        verify(filmService, times(1)).getFilmById(1L);
+
+        filmVersions.filmChanged(1);
+        mvc.perform(get("/films/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+        verify(filmService, times(2)).getFilmById(1L);
+        verify(filmService, never()).getPopularMovies(any());
+    }
+
+    @Test
+    @DisplayName("should cache reference data publicly and revalidate it by ETag")
+    public void shouldCacheReferenceData() throws Exception {
+        GenreService genreService = mock(GenreService.class);
+        when(genreService.getAllGenres()).thenReturn(List.of(new Genre(1, "Comedy")));
+        when(genreService.getAllGenresETag()).thenReturn("\"genres\"");
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new GenreController(genreService, Duration.ofHours(1)))
+                .build();
+
+        mvc.perform(get("/genres"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"genres\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=3600, public"));
+        mvc.perform(get("/genres").header(HttpHeaders.IF_NONE_MATCH, "\"genres\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=3600, public"));
+    }
+
+    @Test
+    @DisplayName("should tag a single genre and answer 404 for a missing one")
+    public void shouldTagGenreById() throws Exception {
+        GenreService genreService = mock(GenreService.class);
+        when(genreService.getGenreById(1)).thenReturn(new Genre(1, "Comedy"));
+        when(genreService.getGenreETag(1)).thenReturn("\"genre-1\"");
+        when(genreService.getGenreETag(9)).thenThrow(new NotFoundException("Genre with id 9 not found"));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new GenreController(genreService, Duration.ofHours(1)))
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+
+        mvc.perform(get("/genres/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"genre-1\""));
+        mvc.perform(get("/genres/1").header(HttpHeaders.IF_NONE_MATCH, "\"genre-1\""))
+                .andExpect(status().isNotModified());
+        mvc.perform(get("/genres/9").header(HttpHeaders.IF_NONE_MATCH, "\"genre-1\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("should answer 404 for a missing film even with a matching If-None-Match")
+    public void shouldNotAnswerNotModifiedForMissingFilm() throws Exception {
+        FilmService filmService = mock(FilmService.class);
+        when(filmService.getFilmETag(9L)).thenThrow(new NotFoundException("Film with id 9 not found"));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new FilmController(filmService, mock(NdjsonWriter.class)))
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+
+        mvc.perform(get("/films/9").header(HttpHeaders.IF_NONE_MATCH, filmVersions.getFilmETag(9)))
+                .andExpect(status().isNotFound());
+        verify(filmService, never()).getFilmById(any());
+    }
+}
@@ -0,0 +1,149 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.film.InMemoryFilmRepository;
+import ru.yandex.practicum.filmorate.repository.user.InMemoryUserRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("InMemoryRepositoryConcurrencyTest")
+public class InMemoryRepositoryConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int USERS_PER_THREAD = 200;
+
+    private final InMemoryFilmRepository filmRepository = new InMemoryFilmRepository();
+    private final InMemoryUserRepository userRepository = new InMemoryUserRepository();
+
+    private static Film getNewFilm(int i) {
+        Film film = new Film();
+        film.setName("Film " + i);
+        film.setDescription("Description for Film " + i);
+        film.setReleaseDate(LocalDate.of(2020, 1, 1));
+        film.setDuration(100);
+        film.setMpa(new Mpa(1, "G"));
+        return film;
+    }
+
+    private static User getNewUser(int i) {
+        User user = new User();
+        user.setEmail("user" + i + "@example.com");
+        user.setLogin("user" + i);
+        user.setName("User " + i);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+    private static void runConcurrently(Callable<?> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("should assign unique ids to concurrently created users and films")
+    public void shouldAssignUniqueIdsConcurrently() throws Exception {
+        runConcurrently(() -> {
+            for (int i = 0; i < USERS_PER_THREAD; i++) {
+                userRepository.createUser(getNewUser(i));
+                filmRepository.addFilm(getNewFilm(i));
+                assertThat(userRepository.getAllUsers()).doesNotContainNull();
+            }
+            return null;
+        });
+
+        assertThat(userRepository.getAllUsers())
+                .extracting(User::getId)
+                .hasSize(THREADS * USERS_PER_THREAD)
+                .doesNotHaveDuplicates();
+        assertThat(filmRepository.getAllFilms())
+                .extracting(Film::getId)
+                .hasSize(THREADS * USERS_PER_THREAD)
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("should count every like exactly once under concurrent likes and unlikes")
+    public void shouldCountLikesConcurrently() throws Exception {
+        Film first = filmRepository.addFilm(getNewFilm(1));
+        Film second = filmRepository.addFilm(getNewFilm(2));
+
+        runConcurrently(() -> {
+            for (long userId = 1; userId <= USERS_PER_THREAD; userId++) {
+                filmRepository.addLike(first.getId(), userId);
+                filmRepository.addLike(second.getId(), userId);
+                if (userId % 2 == 0) {
+                    filmRepository.removeLike(second.getId(), userId);
+                }
+            }
+            return null;
+        });
+
+        Map<Long, Integer> likeCounts = filmRepository.getLikeCounts();
+        assertThat(likeCounts.get(first.getId())).isEqualTo(USERS_PER_THREAD);
+        assertThat(likeCounts.get(second.getId())).isEqualTo(USERS_PER_THREAD / 2);
+        assertThat(filmRepository.getPopularMovies(2L))
+                .extracting(Film::getId)
+                .containsExactly(first.getId(), second.getId());
+    }
+
+    @Test
+    @DisplayName("should keep friendships symmetric under concurrent adds and removes")
+    public void shouldKeepFriendshipsSymmetricConcurrently() throws Exception {
+        int userCount = 20;
+        for (int i = 0; i < userCount; i++) {
+            userRepository.createUser(getNewUser(i));
+        }
+
+        runConcurrently(() -> {
+            for (int i = 0; i < USERS_PER_THREAD; i++) {
+                long userId1 = i % userCount + 1;
+                long userId2 = (i * 7 + 3) % userCount + 1;
+                if (userId1 == userId2) {
+                    continue;
+                }
+                if (i % 3 == 0) {
+                    userRepository.removeFriend(userId1, userId2);
+                } else {
+                    userRepository.addFriend(userId1, userId2);
+                }
+            }
+            return null;
+        });
+
+        for (long userId = 1; userId <= userCount; userId++) {
+            for (User friend : userRepository.getAllFriends(userId)) {
+                assertThat(userRepository.getAllFriends(friend.getId()))
+                        .extracting(User::getId)
+                        .contains(userId);
+            }
+        }
+    }
+}
@@ -1,29 +1,48 @@
 package ru.yandex.practicum.filmorate;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.repository.InstrumentedJdbcTemplate;
+import ru.yandex.practicum.filmorate.repository.SqlRequestStats;
 import ru.yandex.practicum.filmorate.repository.film.JdbcFilmRepository;
+import ru.yandex.practicum.filmorate.repository.genre.CachedGenreRepository;
+import ru.yandex.practicum.filmorate.repository.genre.JdbcGenreRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.CachedMpaRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.JdbcMpaRepository;
 
+import javax.sql.DataSource;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @JdbcTest
-@Import(JdbcFilmRepository.class)
+@Import({JdbcFilmRepository.class, JdbcMpaRepository.class, JdbcGenreRepository.class,
+        CachedMpaRepository.class, CachedGenreRepository.class})
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @DisplayName("JdbcFilmRepositoryTest")
 public class JdbcFilmRepositoryTest {
     private static final long TEST_FILM_ID = 1L;
     private final JdbcFilmRepository filmRepository;
+    private final DataSource dataSource;
+    private final CachedMpaRepository mpaRepository;
+    private final CachedGenreRepository genreRepository;
 
     private static Film getTestFilm() {
         Film film = new Film();
@@ -40,6 +59,17 @@ public class JdbcFilmRepositoryTest {
         return film;
     }
 
+    private static Film getNewFilm(int index) {
+        Film film = new Film();
+        film.setName("Film " + index);
+        film.setDescription("Description for Film " + index);
+        film.setReleaseDate(LocalDate.of(2020, 1, 1));
+        film.setDuration(90 + index);
+        film.setMpa(new Mpa(1, "G"));
+        film.setGenres(new LinkedHashSet<>(List.of(new Genre(1, "Action"), new Genre(3, "Comedy"))));
+        return film;
+    }
+
     @Test
     @DisplayName("should return film by id")
     public void shouldReturnFilmById() {
@@ -49,6 +79,13 @@ public class JdbcFilmRepositoryTest {
                 .isEqualTo(getTestFilm());
     }
 
+    @Test
+    @DisplayName("should check film existence by id")
+    public void shouldCheckFilmExistsById() {
+        assertThat(filmRepository.existsById(TEST_FILM_ID)).isTrue();
+        assertThat(filmRepository.existsById(999L)).isFalse();
+    }
+
     @Test
     @DisplayName("should add a new film")
     public void shouldAddFilm() {
@@ -69,6 +106,77 @@ public class JdbcFilmRepositoryTest {
                 .isEqualTo(newFilm);
     }
 
+    @Test
+    @DisplayName("should return a written film as it is read back")
+    public void shouldReturnWrittenFilmAsReadBack() {
+        Film newFilm = getNewFilm(1);
+        newFilm.setMpa(new Mpa(1, null));
+        newFilm.setGenres(new LinkedHashSet<>(List.of(new Genre(3, null), new Genre(1, null))));
+
+        Film addedFilm = filmRepository.addFilm(newFilm);
+
+        assertThat(addedFilm)
+                .usingRecursiveComparison()
+                .isEqualTo(filmRepository.getFilmById(addedFilm.getId()));
+        assertThat(addedFilm.getGenres()).extracting(Genre::getName).containsExactly("Action", "Comedy");
+
+        addedFilm.setMpa(new Mpa(1, null));
+        addedFilm.setGenres(new LinkedHashSet<>(List.of(new Genre(2, null))));
+        Film updatedFilm = filmRepository.updateFilm(addedFilm);
+
+        assertThat(updatedFilm)
+                .usingRecursiveComparison()
+                .isEqualTo(filmRepository.getFilmById(addedFilm.getId()));
+    }
+
+    @Test
+    @DisplayName("should insert a batch of films with generated ids and genres")
+    public void shouldAddFilmsInBatch() {
+        List<Film> newFilms = List.of(getNewFilm(1), getNewFilm(2), getNewFilm(3));
+        newFilms.get(1).setGenres(new LinkedHashSet<>());
+
+        filmRepository.addFilms(newFilms);
+
+        assertThat(newFilms).extracting(Film::getId).doesNotContainNull().doesNotHaveDuplicates();
+        for (Film newFilm : newFilms) {
+            assertThat(filmRepository.getFilmById(newFilm.getId()))
+                    .usingRecursiveComparison()
+                    .ignoringFields("mpa.name", "genres")
+                    .isEqualTo(newFilm);
+            assertThat(filmRepository.getFilmById(newFilm.getId()).getGenres())
+                    .extracting(Genre::getId)
+                    .containsExactlyElementsOf(newFilm.getGenres().stream().map(Genre::getId).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("should return films liked by a user")
+    public void shouldReturnLikedFilms() {
+        Film liked = filmRepository.addFilm(getNewFilm(1));
+        filmRepository.addFilm(getNewFilm(2));
+        filmRepository.addLike(liked.getId(), 2L);
+        filmRepository.addLike(TEST_FILM_ID, 2L);
+
+        assertThat(filmRepository.getLikedFilms(2L))
+                .extracting(Film::getId)
+                .containsExactly(TEST_FILM_ID, liked.getId());
+        assertThat(filmRepository.getLikedFilms(2L))
+                .filteredOn(film -> film.getId().equals(liked.getId()))
+                .flatExtracting(Film::getGenres)
+                .extracting(Genre::getId)
+                .containsExactly(1, 3);
+        assertThat(filmRepository.getLikedFilms(3L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should look up likes by user through the reverse index")
+    public void shouldUseReverseIndexForLikedFilms() {
+        String plan = new NamedParameterJdbcTemplate(dataSource).queryForObject(
+                "EXPLAIN " + JdbcFilmRepository.LIKED_FILMS_SQL, new MapSqlParameterSource("userId", 2), String.class);
+
+        assertThat(plan).contains("PUBLIC.IDX_LIKES_USER_FILM: USER_ID = ");
+    }
+
     @Test
     @DisplayName("should update an existing film")
     public void shouldUpdateFilm() {
@@ -100,17 +208,152 @@ public class JdbcFilmRepositoryTest {
         assertThat(films).isNotEmpty();
     }
 
+    @Test
+    @DisplayName("should return a page of films after the cursor")
+    public void shouldReturnFilmsPageAfterCursor() {
+        Film first = filmRepository.addFilm(getNewFilm(1));
+        Film second = filmRepository.addFilm(getNewFilm(2));
+        filmRepository.addFilm(getNewFilm(3));
+
+        List<Film> page = (List<Film>) filmRepository.getFilmsPage(TEST_FILM_ID, 2);
+
+        assertThat(page)
+                .extracting(Film::getId)
+                .containsExactly(first.getId(), second.getId());
+        assertThat(page.getFirst().getGenres()).isEqualTo(first.getGenres());
+    }
+
+    @Test
+    @DisplayName("should stream all films with their genres")
+    public void shouldStreamAllFilms() {
+        filmRepository.addFilm(getNewFilm(1));
+        Film filmWithoutGenres = getNewFilm(2);
+        filmWithoutGenres.setGenres(new LinkedHashSet<>());
+        filmRepository.addFilm(filmWithoutGenres);
+
+        List<Film> streamed = new ArrayList<>();
+        filmRepository.streamAllFilms(streamed::add);
+
+        assertThat(streamed)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(filmRepository.getAllFilms());
+    }
+
     @Test
     @DisplayName("should return popular films")
     public void shouldReturnPopularFilms() {
         filmRepository.addLike(TEST_FILM_ID, 1L);
 
-        LinkedHashSet<Film> popularFilms = (LinkedHashSet<Film>) filmRepository.getPopularMovies(1L);
+        List<Film> popularFilms = List.copyOf(filmRepository.getPopularMovies(1L));
 
         assertThat(popularFilms).isNotEmpty();
         assertThat(popularFilms.getFirst().getId()).isEqualTo(TEST_FILM_ID);
     }
 
+    @Test
+    @DisplayName("should order popular films by maintained like count and include films without likes")
+    public void shouldOrderPopularFilmsByLikeCount() {
+        Film liked = filmRepository.addFilm(getNewFilm(1));
+        Film notLiked = filmRepository.addFilm(getNewFilm(2));
+        filmRepository.addLike(liked.getId(), 2L);
+        filmRepository.addLike(liked.getId(), 3L);
+        filmRepository.addLike(liked.getId(), 3L);
+
+        List<Film> popular = List.copyOf(filmRepository.getPopularMovies(10L));
+
+        assertThat(popular)
+                .extracting(Film::getId)
+                .containsExactly(liked.getId(), TEST_FILM_ID, notLiked.getId());
+        assertThat(popular.getFirst().getGenres()).isEqualTo(liked.getGenres());
+    }
+
+    @Test
+    @DisplayName("should hydrate popular films and their genres with a single statement")
+    public void shouldHydratePopularFilmsInOneStatement() {
+        JdbcFilmRepository repository = getInstrumentedRepository();
+        Film withGenres = repository.addFilm(getNewFilm(1));
+        Film withoutGenres = getNewFilm(2);
+        withoutGenres.setGenres(new LinkedHashSet<>());
+        withoutGenres = repository.addFilm(withoutGenres);
+        repository.addLike(withGenres.getId(), 1L);
+        repository.addLike(withGenres.getId(), 2L);
+        repository.addLike(withGenres.getId(), 3L);
+        repository.addLike(withoutGenres.getId(), 2L);
+        repository.addLike(withoutGenres.getId(), 3L);
+        repository.addLike(TEST_FILM_ID, 2L);
+        List<Film> popular = new ArrayList<>();
+
+        SqlRequestStats stats = SqlBudget.assertStatementsAtMost(1,
+                () -> popular.addAll(repository.getPopularMovies(2L)));
+
+        assertThat(stats.getRows()).isEqualTo(4);
+        assertThat(popular)
+                .extracting(Film::getId)
+                .containsExactly(withGenres.getId(), TEST_FILM_ID);
+        assertThat(popular)
+                .extracting(Film::getGenres)
+                .containsExactly(withGenres.getGenres(), getTestFilm().getGenres());
+        assertThat(repository.getPopularMovies(10L))
+                .extracting(Film::getId)
+                .containsExactly(withGenres.getId(), TEST_FILM_ID, withoutGenres.getId());
+    }
+
+    @Test
+    @DisplayName("should decrement like count when a like is removed")
+    public void shouldDecrementLikeCountOnRemoveLike() {
+        Film film = filmRepository.addFilm(getNewFilm(1));
+        filmRepository.addLike(film.getId(), 2L);
+        filmRepository.addLike(film.getId(), 3L);
+
+        filmRepository.removeLike(film.getId(), 2L);
+        filmRepository.removeLike(film.getId(), 3L);
+        filmRepository.removeLike(film.getId(), 3L);
+
+        assertThat(filmRepository.getPopularMovies(10L))
+                .extracting(Film::getId)
+                .containsExactly(TEST_FILM_ID, film.getId());
+    }
+
+    @Test
+    @DisplayName("should add and remove likes in batches and keep like counts")
+    public void shouldApplyLikesInBatches() {
+        Film film = filmRepository.addFilm(getNewFilm(1));
+
+        List<Boolean> added = filmRepository.addLikes(List.of(
+                new Like(film.getId(), 1L), new Like(film.getId(), 2L), new Like(TEST_FILM_ID, 1L)));
+
+        assertThat(added).containsExactly(true, true, false);
+        assertThat(filmRepository.getLikeCounts()).containsEntry(film.getId(), 2).containsEntry(TEST_FILM_ID, 1);
+        assertThat(filmRepository.getLikeCounters()).isEqualTo(Map.of(TEST_FILM_ID, 1, film.getId(), 2));
+        assertThat(filmRepository.getPopularMovies(1L)).extracting(Film::getId).containsExactly(film.getId());
+
+        List<Boolean> removed = filmRepository.removeLikes(List.of(
+                new Like(film.getId(), 1L), new Like(film.getId(), 3L), new Like(film.getId(), 2L)));
+
+        assertThat(removed).containsExactly(true, false, true);
+        assertThat(filmRepository.getPopularMovies(1L)).extracting(Film::getId).containsExactly(TEST_FILM_ID);
+        assertThat(filmRepository.addLikes(List.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should write likes and unlikes together and return the pairs that changed")
+    public void shouldWriteLikesAndUnlikes() {
+        Set<Like> changed = filmRepository.writeLikes(
+                List.of(new Like(TEST_FILM_ID, 2L), new Like(TEST_FILM_ID, 3L)),
+                List.of(new Like(TEST_FILM_ID, 1L), new Like(TEST_FILM_ID, 999L)));
+
+        assertThat(changed).containsExactlyInAnyOrder(
+                new Like(TEST_FILM_ID, 2L), new Like(TEST_FILM_ID, 3L), new Like(TEST_FILM_ID, 1L));
+        assertThat(filmRepository.getLikeCounts()).containsEntry(TEST_FILM_ID, 2);
+    }
+
+    @Test
+    @DisplayName("should find which film ids exist")
+    public void shouldFindExistingIds() {
+        assertThat(filmRepository.findExistingIds(List.of(TEST_FILM_ID, 999L))).containsExactly(TEST_FILM_ID);
+        assertThat(filmRepository.findExistingIds(List.of())).isEmpty();
+    }
+
     @Test
     @DisplayName("should add a like to a film")
     public void shouldAddLike() {
@@ -126,4 +369,58 @@ public class JdbcFilmRepositoryTest {
 
         assertThat(filmRepository.getFilmById(TEST_FILM_ID)).isNotNull();
     }
+
+    @Test
+    @DisplayName("should load genres of every film in the catalog")
+    public void shouldLoadGenresForAllFilms() {
+        Film newFilm = filmRepository.addFilm(getNewFilm(1));
+
+        List<Film> films = (List<Film>) filmRepository.getAllFilms();
+
+        assertThat(films)
+                .filteredOn(film -> film.getId().equals(TEST_FILM_ID))
+                .singleElement()
+                .usingRecursiveComparison()
+                .isEqualTo(getTestFilm());
+        assertThat(films)
+                .filteredOn(film -> film.getId().equals(newFilm.getId()))
+                .singleElement()
+                .extracting(Film::getGenres)
+                .isEqualTo(newFilm.getGenres());
+    }
+
+    @Test
+    @DisplayName("should execute a constant number of statements regardless of catalog size")
+    public void shouldExecuteConstantNumberOfStatements() {
+        JdbcFilmRepository repository = getInstrumentedRepository();
+
+        for (int i = 0; i < 5; i++) {
+            Film film = repository.addFilm(getNewFilm(i));
+            repository.addLike(film.getId(), 1L);
+        }
+        int smallCatalog = countStatements(repository);
+
+        for (int i = 5; i < 50; i++) {
+            Film film = repository.addFilm(getNewFilm(i));
+            repository.addLike(film.getId(), 1L);
+        }
+        int largeCatalog = countStatements(repository);
+
+        assertThat(smallCatalog).isEqualTo(5);
+        assertThat(largeCatalog).isEqualTo(smallCatalog);
+    }
+
+    private static int countStatements(JdbcFilmRepository repository) {
+        return SqlBudget.assertNoRepeatedStatements(() -> {
+            repository.getAllFilms();
+            repository.getFilmById(TEST_FILM_ID);
+            repository.getPopularMovies(100L);
+        }).getStatements();
+    }
+
+    private JdbcFilmRepository getInstrumentedRepository() {
+        InstrumentedJdbcTemplate jdbc = new InstrumentedJdbcTemplate(new JdbcTemplate(dataSource),
+                new SimpleMeterRegistry());
+        return new JdbcFilmRepository(jdbc, mpaRepository, genreRepository);
+    }
 }
@@ -6,11 +6,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.repository.user.JdbcUserRepository;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -26,6 +31,7 @@ public class JdbcUserRepositoryTest {
     private static final long COMMON_FRIEND_ID = 3L;
 
     private final JdbcUserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     private static User getTestUser() {
         User user = new User();
@@ -76,6 +82,38 @@ public class JdbcUserRepositoryTest {
         assertThat(createdUser.getBirthday()).isEqualTo(newUser.getBirthday());
     }
 
+    @Test
+    @DisplayName("should insert a batch of users with generated ids")
+    public void shouldAddUsersInBatch() {
+        List<User> newUsers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setEmail("batchUser" + i + "@example.com");
+            user.setLogin("batchUser" + i);
+            user.setName("Batch User " + i);
+            user.setBirthday(LocalDate.of(1995, 5, 5));
+            newUsers.add(user);
+        }
+
+        userRepository.addUsers(newUsers);
+
+        assertThat(newUsers).extracting(User::getId).doesNotContainNull().doesNotHaveDuplicates();
+        for (User newUser : newUsers) {
+            assertThat(userRepository.getUserById(newUser.getId()))
+                    .usingRecursiveComparison()
+                    .isEqualTo(newUser);
+        }
+    }
+
+    @Test
+    @DisplayName("should find which emails and logins are already taken")
+    public void shouldFindExistingEmailsAndLogins() {
+        assertThat(userRepository.findExistingEmails(List.of("testUser@example.com", "free@example.com")))
+                .containsExactly("testUser@example.com");
+        assertThat(userRepository.findExistingLogins(List.of("free", "testFriend", "commonFriend")))
+                .containsExactlyInAnyOrder("testFriend", "commonFriend");
+    }
+
     @Test
     @DisplayName("should update an existing user")
     public void shouldUpdateExistingUser() {
@@ -99,6 +137,13 @@ public class JdbcUserRepositoryTest {
         assertThat(user).usingRecursiveComparison().isEqualTo(getTestUser());
     }
 
+    @Test
+    @DisplayName("should check user existence by id")
+    public void shouldCheckUserExistsById() {
+        assertThat(userRepository.existsById(TEST_USER_ID)).isTrue();
+        assertThat(userRepository.existsById(999L)).isFalse();
+    }
+
     @Test
     @DisplayName("should return all users")
     public void shouldReturnAllUsers() {
@@ -106,6 +151,25 @@ public class JdbcUserRepositoryTest {
         assertThat(users).isNotEmpty();
     }
 
+    @Test
+    @DisplayName("should return a page of users after the cursor")
+    public void shouldReturnUsersPageAfterCursor() {
+        Collection<User> page = userRepository.getUsersPage(TEST_USER_ID, 1);
+
+        assertThat(page).usingRecursiveFieldByFieldElementComparator().containsExactly(getTestFriend());
+    }
+
+    @Test
+    @DisplayName("should stream all users in id order")
+    public void shouldStreamAllUsers() {
+        List<User> streamed = new ArrayList<>();
+        userRepository.streamAllUsers(streamed::add);
+
+        assertThat(streamed)
+                .extracting(User::getId)
+                .containsExactly(TEST_USER_ID, TEST_FRIEND_ID, COMMON_FRIEND_ID);
+    }
+
     @Test
     @DisplayName("should get all friends of a user")
     public void shouldGetAllFriends() {
@@ -118,6 +182,24 @@ public class JdbcUserRepositoryTest {
         assertThat(friends).contains(getCommonFriend());
     }
 
+    @Test
+    @DisplayName("should get users who added a user as a friend")
+    public void shouldGetFollowers() {
+        assertThat(userRepository.getFollowers(COMMON_FRIEND_ID))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactly(getTestUser(), getTestFriend());
+        assertThat(userRepository.getFollowers(TEST_USER_ID)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should look up followers through the reverse index")
+    public void shouldUseReverseIndexForFollowers() {
+        String plan = new NamedParameterJdbcTemplate(jdbcTemplate).queryForObject(
+                "EXPLAIN " + JdbcUserRepository.FOLLOWERS_SQL, new MapSqlParameterSource("userId", 3), String.class);
+
+        assertThat(plan).contains("PUBLIC.IDX_FRIENDS_FRIEND_USER: FRIEND_ID = ");
+    }
+
     @Test
     @DisplayName("should get common friends between two users")
     public void shouldGetCommonFriends() {
@@ -130,6 +212,31 @@ public class JdbcUserRepositoryTest {
         assertThat(commonFriends).contains(getCommonFriend());
     }
 
+    @Test
+    @DisplayName("should return only friends shared by both users")
+    public void shouldGetOnlySharedFriends() {
+        List<Long> shared = new ArrayList<>(List.of(COMMON_FRIEND_ID));
+        for (int i = 0; i < 6; i++) {
+            User user = new User();
+            user.setEmail("extra" + i + "@example.com");
+            user.setLogin("extra" + i);
+            user.setName("Extra " + i);
+            user.setBirthday(LocalDate.of(1995, 5, 5));
+            Long id = userRepository.createUser(user).getId();
+
+            userRepository.addFriend(TEST_USER_ID, id);
+            if (i % 2 == 0) {
+                userRepository.addFriend(TEST_FRIEND_ID, id);
+                shared.add(id);
+            }
+        }
+
+        Set<User> commonFriends = userRepository.getCommonFriends(TEST_USER_ID, TEST_FRIEND_ID);
+
+        assertThat(commonFriends).extracting(User::getId).containsExactlyInAnyOrderElementsOf(shared);
+        assertThat(userRepository.getCommonFriends(TEST_USER_ID, COMMON_FRIEND_ID)).isEmpty();
+    }
+
     @Test
     @DisplayName("should add a friend to a user")
     public void shouldAddFriend() {
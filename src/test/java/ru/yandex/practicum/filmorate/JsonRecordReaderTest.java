@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.controller.JsonRecordReader;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportRecord;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("JsonRecordReaderTest")
+public class JsonRecordReaderTest {
+    private final JsonRecordReader reader = new JsonRecordReader(new ObjectMapper().findAndRegisterModules());
+
+    private List<ImportRecord<Film>> readAll(String json) {
+        Iterator<ImportRecord<Film>> records = reader.read(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), Film.class);
+        List<ImportRecord<Film>> result = new ArrayList<>();
+        records.forEachRemaining(result::add);
+        return result;
+    }
+
+    @Test
+    @DisplayName("should read the elements of a JSON array")
+    public void shouldReadJsonArray() {
+        List<ImportRecord<Film>> records = readAll("[{\"name\": \"First\"}, {\"name\": \"Second\"}]");
+
+        assertThat(records).extracting(ImportRecord::getRecord).containsExactly(1L, 2L);
+        assertThat(records).extracting(record -> record.getValue().getName()).containsExactly("First", "Second");
+    }
+
+    @Test
+    @DisplayName("should read newline-delimited JSON")
+    public void shouldReadNdjson() {
+        List<ImportRecord<Film>> records = readAll("{\"name\": \"First\"}\n{\"name\": \"Second\"}\n");
+
+        assertThat(records).extracting(record -> record.getValue().getName()).containsExactly("First", "Second");
+    }
+
+    @Test
+    @DisplayName("should report a record that cannot be bound and keep reading")
+    public void shouldContinueAfterBindingError() {
+        List<ImportRecord<Film>> records = readAll(
+                "{\"name\": \"First\"}\n{\"name\": \"Second\", \"duration\": \"long\"}\n{\"name\": \"Third\"}\n");
+
+        assertThat(records).hasSize(3);
+        assertThat(records.get(1).getError()).isNotNull();
+        assertThat(records.get(1).getValue()).isNull();
+        assertThat(records.get(2).getValue().getName()).isEqualTo("Third");
+    }
+
+    @Test
+    @DisplayName("should end the input at malformed JSON with a terminal record")
+    public void shouldEndAtMalformedJson() {
+        List<ImportRecord<Film>> records = readAll("{\"name\": \"First\"}\n{\"name\" }\n{\"name\": \"Third\"}\n");
+
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).isTerminal()).isFalse();
+        assertThat(records.get(1).isTerminal()).isTrue();
+        assertThat(records.get(1).getRecord()).isEqualTo(2);
+        assertThat(records.get(1).getError()).startsWith("Malformed JSON at record 2, offset 26: ");
+    }
+
+    @Test
+    @DisplayName("should return a terminal first record for input that is not JSON")
+    public void shouldEndAtMalformedStart() {
+        List<ImportRecord<Film>> records = readAll("]");
+
+        assertThat(records).singleElement()
+                .matches(ImportRecord::isTerminal)
+                .extracting(ImportRecord::getRecord)
+                .isEqualTo(1L);
+    }
+}
@@ -0,0 +1,197 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.LikeOperation;
+import ru.yandex.practicum.filmorate.repository.film.FilmRepository;
+import ru.yandex.practicum.filmorate.repository.film.JdbcFilmRepository;
+import ru.yandex.practicum.filmorate.repository.film.LikeWriteBuffer;
+import ru.yandex.practicum.filmorate.repository.genre.CachedGenreRepository;
+import ru.yandex.practicum.filmorate.repository.genre.JdbcGenreRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.CachedMpaRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.JdbcMpaRepository;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+@JdbcTest
+@Import({JdbcFilmRepository.class, JdbcMpaRepository.class, JdbcGenreRepository.class,
+        CachedMpaRepository.class, CachedGenreRepository.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DisplayName("LikeWriteBufferTest")
+public class LikeWriteBufferTest {
+    private static final long TEST_FILM_ID = 1L;
+    private static final long TEST_USER_ID = 1L;
+    private static final long OTHER_USER_ID = 2L;
+    private static final long THIRD_USER_ID = 3L;
+
+    private final JdbcFilmRepository filmRepository;
+
+    private final List<String> changes = new CopyOnWriteArrayList<>();
+
+    private LikeWriteBuffer createBuffer(int batchSize, int capacity, Duration flushInterval) {
+        return createBuffer(filmRepository, batchSize, capacity, flushInterval);
+    }
+
+    private LikeWriteBuffer createBuffer(FilmRepository repository, int batchSize, int capacity,
+                                         Duration flushInterval) {
+        LikeWriteBuffer buffer = new LikeWriteBuffer(repository, true, batchSize, capacity, flushInterval, 3, false);
+        buffer.setListener((like, added) -> changes.add((added ? "+" : "-") + like.getUserId()));
+        return buffer;
+    }
+
+    private int likeCount() {
+        return filmRepository.getLikeCounts().getOrDefault(TEST_FILM_ID, 0);
+    }
+
+    @Test
+    @DisplayName("should keep only the last operation per film and user")
+    public void shouldCoalesceOperationsOnTheSamePair() {
+        LikeWriteBuffer buffer = createBuffer(100, 100, Duration.ofSeconds(1));
+
+        buffer.enqueue(new Like(TEST_FILM_ID, OTHER_USER_ID), LikeOperation.Action.LIKE);
+        buffer.enqueue(new Like(TEST_FILM_ID, OTHER_USER_ID), LikeOperation.Action.UNLIKE);
+        buffer.enqueue(new Like(TEST_FILM_ID, OTHER_USER_ID), LikeOperation.Action.LIKE);
+        buffer.enqueue(new Like(TEST_FILM_ID, TEST_USER_ID), LikeOperation.Action.UNLIKE);
+        assertThat(buffer.getQueueDepth()).isEqualTo(2);
+        assertThat(likeCount()).isEqualTo(1);
+
+        buffer.flush();
+
+        assertThat(buffer.getQueueDepth()).isZero();
+        assertThat(buffer.getFlushedOperations()).isEqualTo(2);
+        assertThat(changes).containsExactlyInAnyOrder("+" + OTHER_USER_ID, "-" + TEST_USER_ID);
+        assertThat(likeCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should flush in the caller thread when the buffer stays full")
+    public void shouldFlushInCallerWhenFull() {
+        LikeWriteBuffer buffer = createBuffer(100, 2, Duration.ofMillis(10));
+
+        buffer.enqueue(new Like(TEST_FILM_ID, OTHER_USER_ID), LikeOperation.Action.LIKE);
+        buffer.enqueue(new Like(TEST_FILM_ID, THIRD_USER_ID), LikeOperation.Action.LIKE);
+        buffer.enqueue(new Like(TEST_FILM_ID, OTHER_USER_ID), LikeOperation.Action.UNLIKE);
+        assertThat(buffer.getQueueDepth()).isEqualTo(2);
+
+        buffer.enqueue(new Like(TEST_FILM_ID, TEST_USER_ID), LikeOperation.Action.UNLIKE);
+
+        assertThat(buffer.getQueueDepth()).isEqualTo(1);
+        assertThat(buffer.getFlushedOperations()).isEqualTo(2);
+        assertThat(changes).containsExactly("+" + THIRD_USER_ID);
+        assertThat(likeCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should flush pending operations on shutdown")
+    public void shouldFlushOnStop() {
+        LikeWriteBuffer buffer = createBuffer(100, 100, Duration.ofSeconds(1));
+        buffer.enqueue(new Like(TEST_FILM_ID, OTHER_USER_ID), LikeOperation.Action.LIKE);
+
+        buffer.stop();
+
+        assertThat(buffer.getQueueDepth()).isZero();
+        assertThat(likeCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should retry a failed batch behind newer operations on the same pair")
+    public void shouldRetryFailedBatch() throws InterruptedException {
+        FilmRepository repository = mock(FilmRepository.class, delegatesTo(filmRepository));
+        LikeWriteBuffer buffer = createBuffer(repository, 100, 100, Duration.ofMillis(20));
+        doAnswer(invocation -> {
+            buffer.enqueue(new Like(TEST_FILM_ID, OTHER_USER_ID), LikeOperation.Action.UNLIKE);
+            throw new TransientDataAccessResourceException("Lock timeout");
+        }).doAnswer(delegatesTo(filmRepository)).when(repository).writeLikes(any(), any());
+
+        buffer.enqueue(new Like(TEST_FILM_ID, OTHER_USER_ID), LikeOperation.Action.LIKE);
+        buffer.enqueue(new Like(TEST_FILM_ID, THIRD_USER_ID), LikeOperation.Action.LIKE);
+        buffer.flush();
+
+        assertThat(buffer.getQueueDepth()).isEqualTo(2);
+        assertThat(buffer.getFailedOperations()).isZero();
+        assertThat(changes).isEmpty();
+
+        buffer.flush();
+        assertThat(buffer.getQueueDepth()).as("backing off").isEqualTo(2);
+        Thread.sleep(30);
+        buffer.flush();
+
+        assertThat(buffer.getQueueDepth()).isZero();
+        assertThat(changes).containsExactly("+" + THIRD_USER_ID);
+        assertThat(likeCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should drop a batch after the maximum number of failed flushes")
+    public void shouldDropBatchAfterMaxAttempts() throws InterruptedException {
+        FilmRepository repository = mock(FilmRepository.class, delegatesTo(filmRepository));
+        doThrow(new TransientDataAccessResourceException("Lock timeout")).when(repository).writeLikes(any(), any());
+        LikeWriteBuffer buffer = createBuffer(repository, 100, 100, Duration.ofMillis(1));
+        buffer.enqueue(new Like(TEST_FILM_ID, OTHER_USER_ID), LikeOperation.Action.LIKE);
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Thread.sleep(10);
+            buffer.flush();
+        }
+
+        assertThat(buffer.getQueueDepth()).isZero();
+        assertThat(buffer.getFailedOperations()).isEqualTo(1);
+        assertThat(changes).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should flush in the caller thread after shutdown")
+    public void shouldFlushInlineAfterStop() {
+        LikeWriteBuffer buffer = createBuffer(1, 100, Duration.ofMinutes(1));
+        buffer.start();
+        buffer.stop();
+
+        buffer.enqueue(new Like(TEST_FILM_ID, OTHER_USER_ID), LikeOperation.Action.LIKE);
+
+        assertThat(buffer.getQueueDepth()).isZero();
+        assertThat(changes).containsExactly("+" + OTHER_USER_ID);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("should flush in the background once the batch size is reached")
+    public void shouldFlushInBackground() throws InterruptedException {
+        LikeWriteBuffer buffer = createBuffer(2, 100, Duration.ofMinutes(1));
+        buffer.start();
+        try {
+            buffer.enqueue(new Like(TEST_FILM_ID, OTHER_USER_ID), LikeOperation.Action.LIKE);
+            buffer.enqueue(new Like(TEST_FILM_ID, THIRD_USER_ID), LikeOperation.Action.LIKE);
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (buffer.getFlushedOperations() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertThat(buffer.getQueueDepth()).isZero();
+            assertThat(buffer.getFlushedOperations()).isEqualTo(2);
+            assertThat(likeCount()).isEqualTo(3);
+        } finally {
+            buffer.stop();
+            filmRepository.removeLike(TEST_FILM_ID, OTHER_USER_ID);
+            filmRepository.removeLike(TEST_FILM_ID, THIRD_USER_ID);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.config.LogbookPolicy;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LogbookPolicyTest")
+public class LogbookPolicyTest {
+    private final LogbookPolicy policy = new LogbookPolicy();
+
+    @Test
+    @DisplayName("should log requests matching no rule in full")
+    public void shouldLogUnmatchedRequestsInFull() {
+        policy.setRules(List.of(rule("GET", "/films", false, 0)));
+
+        assertThat(policy.shouldLog("POST", "/films")).isTrue();
+        assertThat(policy.shouldLogBody("POST", "/films")).isTrue();
+        assertThat(policy.shouldLog("GET", "/users")).isTrue();
+    }
+
+    @Test
+    @DisplayName("should apply the first matching rule")
+    public void shouldApplyFirstMatchingRule() {
+        policy.setRules(List.of(rule(null, "/actuator/**", true, 0), rule("GET", "/films/*", false, 1),
+                rule(null, "/films/**", true, 1)));
+
+        assertThat(policy.shouldLog("GET", "/actuator/prometheus")).isFalse();
+        assertThat(policy.shouldLogBody("GET", "/films/popular")).isFalse();
+        assertThat(policy.shouldLogBody("get", "/films/1")).isFalse();
+        assertThat(policy.shouldLogBody("PUT", "/films/1")).isTrue();
+        assertThat(policy.shouldLogBody("DELETE", "/films/1/like/2")).isTrue();
+    }
+
+    @Test
+    @DisplayName("should log about the sample rate share of matching requests")
+    public void shouldSampleMatchingRequests() {
+        policy.setRules(List.of(rule("GET", "/films", false, 0.1)));
+
+        long logged = IntStream.range(0, 10_000).filter(i -> policy.shouldLog("GET", "/films")).count();
+
+        assertThat(logged).isBetween(700L, 1300L);
+    }
+
+    private static LogbookPolicy.Rule rule(String method, String path, boolean body, double sampleRate) {
+        LogbookPolicy.Rule rule = new LogbookPolicy.Rule();
+        rule.setMethod(method);
+        rule.setPath(path);
+        rule.setBody(body);
+        rule.setSampleRate(sampleRate);
+        return rule;
+    }
+}
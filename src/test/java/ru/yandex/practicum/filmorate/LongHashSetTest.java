@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.repository.LongHashSet;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("LongHashSetTest")
+public class LongHashSetTest {
+    @Test
+    @DisplayName("should behave like a set of longs")
+    public void shouldBehaveLikeSet() {
+        LongHashSet set = new LongHashSet();
+        Set<Long> reference = new HashSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            long value = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(set.remove(value)).isEqualTo(reference.remove(value));
+            } else {
+                assertThat(set.add(value)).isEqualTo(reference.add(value));
+            }
+        }
+
+        assertThat(set.size()).isEqualTo(reference.size());
+        assertThat(Arrays.stream(set.toArray()).boxed()).containsExactlyInAnyOrderElementsOf(reference);
+        for (long value = 1; value <= 5_000; value++) {
+            assertThat(set.contains(value)).isEqualTo(reference.contains(value));
+        }
+    }
+
+    @Test
+    @DisplayName("should reject non-positive ids")
+    public void shouldRejectNonPositiveIds() {
+        LongHashSet set = new LongHashSet();
+
+        assertThatThrownBy(() -> set.add(0L)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> set.remove(-1L)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(set.contains(0L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("should keep every element reachable after removing one from its probe chain")
+    public void shouldShiftProbeChainBackOnRemove() {
+        // three elements in the minimum four slots always form one run of occupied slots
+        List<List<Long>> removalOrders = List.of(List.of(1L, 2L, 3L), List.of(1L, 3L, 2L), List.of(2L, 1L, 3L),
+                List.of(2L, 3L, 1L), List.of(3L, 1L, 2L), List.of(3L, 2L, 1L));
+        for (List<Long> order : removalOrders) {
+            LongHashSet set = new LongHashSet();
+            order.forEach(set::add);
+            Set<Long> remaining = new HashSet<>(order);
+
+            for (long value : order) {
+                assertThat(set.remove(value)).isTrue();
+                remaining.remove(value);
+                assertThat(remaining).allMatch(set::contains);
+                assertThat(set.contains(value)).isFalse();
+            }
+            assertThat(set.isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("should not leave tombstones behind removed elements")
+    public void shouldNotGrowUnderChurn() {
+        LongHashSet set = new LongHashSet();
+        long minimumFootprint = set.memoryFootprint();
+
+        for (long value = 1; value <= 10_000; value++) {
+            set.add(value);
+            if (value > 2) {
+                set.remove(value - 2);
+            }
+        }
+
+        assertThat(set.size()).isEqualTo(2);
+        assertThat(set.memoryFootprint()).isEqualTo(minimumFootprint);
+    }
+
+    @Test
+    @DisplayName("should keep every element when resizing and stay within its footprint")
+    public void shouldResize() {
+        LongHashSet set = new LongHashSet();
+        long minimumFootprint = set.memoryFootprint();
+        for (long value = 1; value <= 1_000; value++) {
+            set.add(value * 1_000 + 7);
+        }
+
+        assertThat(set.size()).isEqualTo(1_000);
+        for (long value = 1; value <= 1_000; value++) {
+            assertThat(set.contains(value * 1_000 + 7)).isTrue();
+        }
+        assertThat(set.contains(7L)).isFalse();
+        assertThat(set.memoryFootprint()).isGreaterThan(minimumFootprint).isLessThanOrEqualTo(24L * 1_000);
+    }
+}
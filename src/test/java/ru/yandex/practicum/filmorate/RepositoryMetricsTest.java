@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.yandex.practicum.filmorate.config.RepositoryMetricsAspect;
+import ru.yandex.practicum.filmorate.config.RequestMetricsFilter;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.InstrumentedJdbcTemplate;
+import ru.yandex.practicum.filmorate.repository.SqlRequestStats;
+import ru.yandex.practicum.filmorate.repository.film.JdbcFilmRepository;
+import ru.yandex.practicum.filmorate.repository.genre.CachedGenreRepository;
+import ru.yandex.practicum.filmorate.repository.genre.JdbcGenreRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.CachedMpaRepository;
+import ru.yandex.practicum.filmorate.repository.mpa.JdbcMpaRepository;
+import ru.yandex.practicum.filmorate.repository.user.InMemoryUserRepository;
+import ru.yandex.practicum.filmorate.repository.user.UserRepository;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@Import({JdbcMpaRepository.class, JdbcGenreRepository.class, CachedMpaRepository.class, CachedGenreRepository.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DisplayName("RepositoryMetricsTest")
+public class RepositoryMetricsTest {
+    private final JdbcTemplate jdbcTemplate;
+    private final CachedMpaRepository mpaRepository;
+    private final CachedGenreRepository genreRepository;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("should time repository calls and record returned rows")
+    public void shouldTimeRepositoryCalls() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new InMemoryUserRepository());
+        factory.addAspect(new RepositoryMetricsAspect(registry));
+        UserRepository repository = factory.getProxy();
+        User user = new User();
+        user.setEmail("metrics@example.com");
+        user.setLogin("metrics");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+
+        repository.createUser(user);
+        repository.getAllUsers();
+        repository.getAllUsers();
+        assertThatThrownBy(() -> repository.getUsersPage(0L, null)).isInstanceOf(NullPointerException.class);
+
+        assertThat(registry.get("filmorate.repository.calls")
+                .tags("repository", "InMemoryUserRepository", "method", "getAllUsers", "outcome", "success")
+                .timer().count()).isEqualTo(2);
+        assertThat(registry.get("filmorate.repository.calls")
+                .tags("method", "getUsersPage", "outcome", "error")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get("filmorate.repository.rows")
+                .tags("method", "getAllUsers")
+                .summary().totalAmount()).isEqualTo(2);
+        assertThat(registry.find("filmorate.repository.rows").tags("method", "createUser").summary()).isNull();
+    }
+
+    @Test
+    @DisplayName("should count statements in total and for the current request")
+    public void shouldCountStatements() {
+        JdbcFilmRepository repository = new JdbcFilmRepository(
+                new InstrumentedJdbcTemplate(jdbcTemplate, registry), mpaRepository, genreRepository);
+        repository.getAllFilms();
+
+        SqlRequestStats stats = SqlRequestStats.start();
+        try {
+            repository.getFilmById(1L);
+            repository.getPopularMovies(10L);
+        } finally {
+            SqlRequestStats.stop();
+        }
+        repository.getPopularMovies(10L);
+
+        assertThat(stats.getStatements()).isEqualTo(3);
+        assertThat(registry.get("filmorate.jdbc.statements").counter().count()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("should flag requests over the statement budget and repeated statements")
+    public void shouldFlagRequestsOverBudget() throws Exception {
+        JdbcFilmRepository repository = new JdbcFilmRepository(
+                new InstrumentedJdbcTemplate(jdbcTemplate, registry), mpaRepository, genreRepository);
+        RequestMetricsFilter filter = new RequestMetricsFilter(registry, 5, 3);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/films/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/films/{id}");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            for (int i = 0; i < 3; i++) {
+                repository.getFilmById(1L);
+            }
+        });
+
+        assertThat(registry.get("filmorate.http.sql.statements").tags("uri", "/films/{id}")
+                .summary().totalAmount()).isEqualTo(6);
+        assertThat(registry.get("filmorate.http.sql.rows").tags("uri", "/films/{id}")
+                .summary().totalAmount()).isEqualTo(9);
+        assertThat(registry.get("filmorate.http.sql.budget.exceeded").tags("reason", "statements")
+                .counter().count()).isEqualTo(1);
+        assertThat(registry.get("filmorate.http.sql.budget.exceeded").tags("reason", "repeated")
+                .counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.yandex.practicum.filmorate.config.RequestConcurrencyLimiter;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RequestConcurrencyLimiterTest")
+public class RequestConcurrencyLimiterTest {
+    private final RequestConcurrencyLimiter limiter =
+            new RequestConcurrencyLimiter(1, Duration.ofMillis(50), new ObjectMapper());
+
+    @Test
+    @DisplayName("should reject a request with 503 while all slots are taken")
+    public void shouldRejectWhenNoSlotIsFree() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blockingChain = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        Thread slow = Thread.ofVirtual().start(() -> {
+            try {
+                limiter.doFilter(new MockHttpServletRequest("GET", "/films/popular"),
+                        new MockHttpServletResponse(), blockingChain);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        limiter.doFilter(new MockHttpServletRequest("GET", "/films/popular"), rejected, new MockFilterChain());
+
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getContentAsString()).contains("Too many concurrent requests");
+
+        release.countDown();
+        slow.join();
+        assertThat(limiter.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should release the slot after the request completes")
+    public void shouldReleaseSlotAfterRequest() throws Exception {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        limiter.doFilter(new MockHttpServletRequest("GET", "/genres"), first, new MockFilterChain());
+        limiter.doFilter(new MockHttpServletRequest("GET", "/genres"), second, new MockFilterChain());
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(limiter.getAvailablePermits()).isEqualTo(1);
+    }
+}
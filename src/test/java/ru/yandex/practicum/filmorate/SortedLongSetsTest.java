@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.repository.SortedLongSets;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SortedLongSetsTest")
+public class SortedLongSetsTest {
+
+    private static long[] randomSortedIds(Random random, int size, int bound) {
+        Set<Long> ids = new TreeSet<>();
+        while (ids.size() < size) {
+            ids.add(1L + random.nextInt(bound));
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long[] naiveIntersection(long[] first, long[] second) {
+        Set<Long> secondIds = new TreeSet<>();
+        LongStream.of(second).forEach(secondIds::add);
+        return LongStream.of(first).filter(secondIds::contains).toArray();
+    }
+
+    @Test
+    @DisplayName("should intersect lists of similar size by merging")
+    public void shouldIntersectSimilarSizes() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100; i++) {
+            long[] first = randomSortedIds(random, 200, 1_000);
+            long[] second = randomSortedIds(random, 300, 1_000);
+
+            assertThat(SortedLongSets.intersect(first, second)).containsExactly(naiveIntersection(first, second));
+        }
+    }
+
+    @Test
+    @DisplayName("should intersect skewed lists by galloping")
+    public void shouldIntersectSkewedSizes() {
+        Random random = new Random(11);
+        for (int i = 0; i < 100; i++) {
+            long[] small = randomSortedIds(random, 1 + random.nextInt(20), 50_000);
+            long[] large = randomSortedIds(random, 20_000, 50_000);
+
+            assertThat(SortedLongSets.intersect(small, large)).containsExactly(naiveIntersection(small, large));
+            assertThat(SortedLongSets.intersect(large, small)).containsExactly(naiveIntersection(small, large));
+        }
+    }
+
+    @Test
+    @DisplayName("should handle empty and boundary lists")
+    public void shouldHandleEdgeCases() {
+        long[] all = LongStream.rangeClosed(1, 1_000).toArray();
+
+        assertThat(SortedLongSets.intersect(new long[0], all)).isEmpty();
+        assertThat(SortedLongSets.intersect(new long[]{1, 1_000}, all)).containsExactly(1, 1_000);
+        assertThat(SortedLongSets.intersect(new long[]{1_001, 2_000}, all)).isEmpty();
+        assertThat(SortedLongSets.intersect(all, all)).containsExactly(all);
+    }
+}
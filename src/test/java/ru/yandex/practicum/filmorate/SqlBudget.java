@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate;
+
+import ru.yandex.practicum.filmorate.repository.SqlRequestStats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fails a test when the code under test issues more statements than expected or repeats one. Only statements issued
+ * through an {@link ru.yandex.practicum.filmorate.repository.InstrumentedJdbcTemplate} are seen.
+ */
+public final class SqlBudget {
+
+    private SqlBudget() {
+    }
+
+    public static SqlRequestStats assertStatementsAtMost(int maxStatements, Runnable action) {
+        SqlRequestStats stats = SqlRequestStats.record(action);
+        assertThat(stats.getStatements())
+                .as("SQL statements issued, repeated: %s", stats.getRepeatedStatements(2))
+                .isLessThanOrEqualTo(maxStatements);
+        return stats;
+    }
+
+    public static SqlRequestStats assertNoRepeatedStatements(Runnable action) {
+        SqlRequestStats stats = SqlRequestStats.record(action);
+        assertThat(stats.getRepeatedStatements(2)).as("SQL statements issued more than once").isEmpty();
+        return stats;
+    }
+}
@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.controller.JsonRecordReader;
+import ru.yandex.practicum.filmorate.model.ImportError;
+import ru.yandex.practicum.filmorate.model.ImportRecord;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.user.JdbcUserRepository;
+import ru.yandex.practicum.filmorate.service.user.FriendGraph;
+import ru.yandex.practicum.filmorate.service.user.UserServiceImpl;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@Import({JdbcUserRepository.class, FriendGraph.class, UserServiceImpl.class, ValidationAutoConfiguration.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DisplayName("UserImportTest")
+public class UserImportTest {
+    private final UserServiceImpl userService;
+    private final JdbcUserRepository userRepository;
+
+    private static ImportRecord<User> record(long number, String email, String login) {
+        User user = new User();
+        user.setEmail(email);
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1995, 5, 5));
+        return new ImportRecord<>(number, user, null);
+    }
+
+    @Test
+    @DisplayName("should import valid users and report every rejected record")
+    public void shouldReportRejectedRecords() {
+        List<ImportRecord<User>> records = List.of(
+                record(1, "first@example.com", "first"),
+                record(2, "not-an-email", "second"),
+                record(3, "testUser@example.com", "third"),
+                record(4, "fourth@example.com", "testFriend"),
+                record(5, "first@example.com", "fifth"),
+                record(6, "sixth@example.com", "first"),
+                new ImportRecord<>(7, null, "Cannot deserialize value"),
+                record(8, "eighth@example.com", "eighth"));
+
+        ImportResult result = userService.importUsers(records.iterator());
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(6);
+        assertThat(result.getErrors()).extracting(ImportError::getRecord).containsExactly(2L, 7L, 3L, 4L, 5L, 6L);
+        assertThat(result.getErrors().get(4).getMessage()).contains("duplicates record 1");
+        assertThat(userRepository.findExistingLogins(List.of("first", "eighth")))
+                .containsExactlyInAnyOrder("first", "eighth");
+    }
+
+    @Test
+    @DisplayName("should not reserve the email and login of a rejected record")
+    public void shouldNotReserveRejectedRecord() {
+        List<ImportRecord<User>> records = List.of(
+                record(1, "shared@example.com", "testFriend"),
+                record(2, "testUser@example.com", "shared"),
+                record(3, "shared@example.com", "shared"));
+
+        ImportResult result = userService.importUsers(records.iterator());
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(ImportError::getRecord).containsExactly(1L, 2L);
+        assertThat(userRepository.findExistingEmails(List.of("shared@example.com")))
+                .containsExactly("shared@example.com");
+    }
+
+    @Test
+    @DisplayName("should keep the batches before malformed JSON and report where the input broke")
+    public void shouldReturnPartialResultForMalformedJson() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 1000; i++) {
+            ndjson.append("{\"email\":\"bulk").append(i).append("@example.com\",\"login\":\"bulk").append(i)
+                    .append("\",\"birthday\":\"1995-05-05\"}\n");
+        }
+        int brokenAt = ndjson.length();
+        ndjson.append("{\"email\": \"broken@example.com\", \"login\"}\n");
+        ndjson.append("{\"email\":\"after@example.com\",\"login\":\"after\",\"birthday\":\"1995-05-05\"}\n");
+        JsonRecordReader reader = new JsonRecordReader(new ObjectMapper().findAndRegisterModules());
+
+        ImportResult result = userService.importUsers(reader.read(
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)), User.class));
+
+        assertThat(result.getImported()).isEqualTo(1000);
+        assertThat(result.getFailed()).isZero();
+        assertThat(result.getTerminalError().getRecord()).isEqualTo(1001);
+        assertThat(result.getTerminalError().getMessage()).startsWith("Malformed JSON at record 1001, offset ");
+        int offset = Integer.parseInt(result.getTerminalError().getMessage().replaceAll(".*offset (\\d+):.*", "$1"));
+        assertThat(offset).isBetween(brokenAt, brokenAt + 50);
+        assertThat(userRepository.findExistingLogins(List.of("bulk1", "bulk1000", "after")))
+                .containsExactlyInAnyOrder("bulk1", "bulk1000");
+    }
+
+    @Test
+    @DisplayName("should default the name of imported users to their login")
+    public void shouldDefaultNameToLogin() {
+        userService.importUsers(List.of(record(1, "nameless@example.com", "nameless")).iterator());
+
+        assertThat(userRepository.getAllUsers())
+                .filteredOn(user -> user.getLogin().equals("nameless"))
+                .extracting(User::getName)
+                .containsExactly("nameless");
+    }
+}
@@ -29,3 +29,4 @@ INSERT INTO friends (user_id, friend_id) VALUES
 INSERT INTO likes (film_id, user_id) VALUES
 (1, 1);
 
+UPDATE films f SET like_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id);